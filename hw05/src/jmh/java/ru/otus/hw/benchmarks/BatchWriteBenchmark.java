@@ -0,0 +1,128 @@
+package ru.otus.hw.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.otus.hw.collections.LongSet;
+import ru.otus.hw.models.Author;
+import ru.otus.hw.models.Book;
+import ru.otus.hw.models.Genre;
+import ru.otus.hw.repositories.JdbcAuthorRepository;
+import ru.otus.hw.repositories.JdbcBookRepository;
+import ru.otus.hw.repositories.JdbcGenreRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BatchWriteBenchmark {
+
+    private static final int SEED_BOOKS_COUNT = 1000;
+
+    @Param({"10", "100", "1000"})
+    private int rowsCount;
+
+    private BenchmarkDatabase database;
+
+    private JdbcAuthorRepository authorRepository;
+
+    private JdbcBookRepository bookRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        database = new BenchmarkDatabase(SEED_BOOKS_COUNT);
+        var namedJdbc = database.getNamedJdbc();
+        authorRepository = new JdbcAuthorRepository(namedJdbc);
+        var genreRepository = new JdbcGenreRepository(namedJdbc);
+        bookRepository = new JdbcBookRepository(genreRepository, namedJdbc, namedJdbc.getJdbcOperations());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+    }
+
+    @Benchmark
+    public List<Author> authorSaveLoop() {
+        List<Author> saved = new ArrayList<>(rowsCount);
+        for (Author author : newAuthors()) {
+            saved.add(authorRepository.save(author));
+        }
+        return saved;
+    }
+
+    @Benchmark
+    public List<Author> authorSaveAll() {
+        return authorRepository.saveAll(newAuthors());
+    }
+
+    @Benchmark
+    public List<Book> bookSaveLoop() {
+        List<Book> saved = new ArrayList<>(rowsCount);
+        for (Book book : newBooks()) {
+            saved.add(bookRepository.save(book));
+        }
+        return saved;
+    }
+
+    @Benchmark
+    public List<Book> bookSaveAll() {
+        return bookRepository.saveAll(newBooks());
+    }
+
+    @Benchmark
+    public void bookDeleteLoop(BooksToDelete booksToDelete) {
+        booksToDelete.ids.forEach(bookRepository::deleteById);
+    }
+
+    @Benchmark
+    public void bookDeleteAllByIds(BooksToDelete booksToDelete) {
+        bookRepository.deleteAllByIds(booksToDelete.ids);
+    }
+
+    private List<Author> newAuthors() {
+        return IntStream.range(0, rowsCount)
+                .mapToObj(i -> new Author(0, "BenchmarkAuthor_" + i))
+                .toList();
+    }
+
+    private List<Book> newBooks() {
+        int authorsCount = database.getAuthorsCount();
+        int genresCount = database.getGenresCount();
+        return IntStream.range(0, rowsCount)
+                .mapToObj(i -> new Book(0, "BenchmarkBook_" + i,
+                        new Author(i % authorsCount + 1, null),
+                        List.of(new Genre(i % genresCount + 1, null), new Genre((i + 1) % genresCount + 1, null))))
+                .toList();
+    }
+
+    @State(Scope.Thread)
+    public static class BooksToDelete {
+
+        private LongSet ids;
+
+        @Setup(Level.Invocation)
+        public void insertBooks(BatchWriteBenchmark benchmark) {
+            ids = LongSet.of(benchmark.bookRepository.saveAll(benchmark.newBooks()).stream()
+                    .mapToLong(Book::getId)
+                    .toArray());
+        }
+    }
+}
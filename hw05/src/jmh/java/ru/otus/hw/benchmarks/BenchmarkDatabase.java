@@ -0,0 +1,121 @@
+package ru.otus.hw.benchmarks;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+
+public class BenchmarkDatabase implements AutoCloseable {
+
+    public static final int GENRES_PER_BOOK = 2;
+
+    private static final int BOOKS_PER_AUTHOR = 20;
+
+    private static final int MIN_AUTHORS_COUNT = 3;
+
+    private static final int MAX_GENRES_COUNT = 100;
+
+    private final DataSource database;
+
+    private final NamedParameterJdbcOperations namedJdbc;
+
+    private final int booksCount;
+
+    private final int authorsCount;
+
+    private final int genresCount;
+
+    private final boolean created;
+
+    public BenchmarkDatabase(int booksCount) {
+        this(new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build(), booksCount);
+    }
+
+    // База H2 по url на одном соединении; в уже заполненной базе схема и данные не создаются заново
+    public BenchmarkDatabase(String url, int booksCount) {
+        this(new SingleConnectionDataSource(url, "sa", "", true), booksCount);
+    }
+
+    private BenchmarkDatabase(DataSource database, int booksCount) {
+        this.database = database;
+        this.namedJdbc = new NamedParameterJdbcTemplate(database);
+        this.booksCount = booksCount;
+        this.authorsCount = Math.max(MIN_AUTHORS_COUNT, booksCount / BOOKS_PER_AUTHOR);
+        this.genresCount = Math.min(MAX_GENRES_COUNT, Math.max(GENRES_PER_BOOK, booksCount / 10));
+        this.created = !booksTableExists();
+        if (created) {
+            new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(database);
+            seed();
+        }
+    }
+
+    public DataSource getDataSource() {
+        return database;
+    }
+
+    public NamedParameterJdbcOperations getNamedJdbc() {
+        return namedJdbc;
+    }
+
+    public int getBooksCount() {
+        return booksCount;
+    }
+
+    public int getAuthorsCount() {
+        return authorsCount;
+    }
+
+    public int getGenresCount() {
+        return genresCount;
+    }
+
+    public boolean isCreated() {
+        return created;
+    }
+
+    @Override
+    public void close() {
+        if (database instanceof EmbeddedDatabase embeddedDatabase) {
+            embeddedDatabase.shutdown();
+            return;
+        }
+        namedJdbc.getJdbcOperations().execute("SHUTDOWN");
+        ((SingleConnectionDataSource) database).destroy();
+    }
+
+    private boolean booksTableExists() {
+        return namedJdbc.getJdbcOperations().execute((ConnectionCallback<Boolean>) connection -> {
+            try (ResultSet tables = connection.getMetaData()
+                    .getTables(connection.getCatalog(), null, "BOOKS", new String[]{"TABLE"})) {
+                return tables.next();
+            }
+        });
+    }
+
+    private void seed() {
+        JdbcTemplate jdbc = (JdbcTemplate) namedJdbc.getJdbcOperations();
+        jdbc.update("INSERT INTO authors (full_name) SELECT 'Author_' || x FROM SYSTEM_RANGE(1, ?)", authorsCount);
+        jdbc.update("INSERT INTO genres (name) SELECT 'Genre_' || x FROM SYSTEM_RANGE(1, ?)", genresCount);
+        jdbc.update("""
+                INSERT INTO books (title, author_id)
+                SELECT 'BookTitle_' || x, MOD(x, ?) + 1 FROM SYSTEM_RANGE(1, ?)
+                """, authorsCount, booksCount);
+        jdbc.update("""
+                INSERT INTO books_genres (book_id, genre_id)
+                SELECT DISTINCT books.id, MOD(books.id + shift.x * 7, ?) + 1 FROM books
+                CROSS JOIN SYSTEM_RANGE(0, ?) shift
+                """, genresCount, GENRES_PER_BOOK - 1);
+    }
+}
@@ -0,0 +1,97 @@
+package ru.otus.hw.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import ru.otus.hw.converters.AuthorConverter;
+import ru.otus.hw.converters.BookConverter;
+import ru.otus.hw.converters.GenreConverter;
+import ru.otus.hw.models.Author;
+import ru.otus.hw.models.Book;
+import ru.otus.hw.models.Genre;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+// Сравнение аллокаций смотреть по gc.alloc.rate.norm из -prof gc
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BookConverterBenchmark {
+
+    private static final int AUTHORS_COUNT = 5000;
+
+    private static final int GENRES_COUNT = 100;
+
+    @Param({"100000"})
+    private int booksCount;
+
+    private BookConverter bookConverter;
+
+    private List<Book> books;
+
+    private StringBuilder buffer;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        bookConverter = new BookConverter(new AuthorConverter(), new GenreConverter());
+        buffer = new StringBuilder();
+        books = IntStream.rangeClosed(1, booksCount)
+                .mapToObj(i -> new Book(i, "BookTitle_" + i,
+                        new Author(i % AUTHORS_COUNT + 1, "Author_" + (i % AUTHORS_COUNT + 1)),
+                        List.of(new Genre(i % GENRES_COUNT + 1, "Genre_" + (i % GENRES_COUNT + 1)),
+                                new Genre((i + 7) % GENRES_COUNT + 1, "Genre_" + ((i + 7) % GENRES_COUNT + 1)))))
+                .toList();
+    }
+
+    @Benchmark
+    public void formatted(Blackhole blackhole) {
+        for (Book book : books) {
+            blackhole.consume(formattedBookToString(book));
+        }
+    }
+
+    @Benchmark
+    public void bookToString(Blackhole blackhole) {
+        for (Book book : books) {
+            blackhole.consume(bookConverter.bookToString(book));
+        }
+    }
+
+    @Benchmark
+    public void appendToReusedBuilder(Blackhole blackhole) {
+        for (Book book : books) {
+            buffer.setLength(0);
+            blackhole.consume(bookConverter.appendTo(buffer, book).length());
+        }
+    }
+
+    // Прежняя реализация BookConverter на String.formatted, оставлена как точка отсчёта
+    private static String formattedBookToString(Book book) {
+        var genresString = book.getGenres().stream()
+                .map(genre -> "Id: %d, Name: %s".formatted(genre.getId(), genre.getName()))
+                .map("{%s}"::formatted)
+                .collect(Collectors.joining(", "));
+        var author = book.getAuthor();
+        return "Id: %d, title: %s, author: {%s}, genres: [%s]".formatted(
+                book.getId(),
+                book.getTitle(),
+                "Id: %d, FullName: %s".formatted(author.getId(), author.getFullName()),
+                genresString);
+    }
+}
@@ -0,0 +1,119 @@
+package ru.otus.hw.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import ru.otus.hw.models.Book;
+import ru.otus.hw.repositories.BookFetchMode;
+import ru.otus.hw.repositories.JdbcBookRepository;
+import ru.otus.hw.repositories.JdbcGenreRepository;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Сравнивает чтение книг строкой на жанр (JOINED) и строкой на книгу (AGGREGATED).
+ * Время меряет JMH, а строки и байты на операцию один раз считаются в setUp через отдельный
+ * подсчитывающий DataSource, чтобы прокси не попадали в замеры времени.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@State(Scope.Benchmark)
+public class BookFetchModeBenchmark {
+
+    private static final int PAGE_SIZE = 100;
+
+    private static final int TRAFFIC_SAMPLES = 200;
+
+    @Param({"1000", "100000"})
+    private int booksCount;
+
+    @Param({"JOINED", "AGGREGATED"})
+    private BookFetchMode fetchMode;
+
+    private BenchmarkDatabase database;
+
+    private JdbcBookRepository bookRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        database = new BenchmarkDatabase(booksCount);
+        bookRepository = repository(database.getNamedJdbc());
+        printTraffic();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+    }
+
+    @Benchmark
+    public Optional<Book> findById() {
+        return bookRepository.findById(randomId(booksCount));
+    }
+
+    @Benchmark
+    public List<Book> findPage() {
+        return bookRepository.findPage(randomId(booksCount - PAGE_SIZE), PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<Book> findAllByAuthorId() {
+        return bookRepository.findAllByAuthorId(randomId(database.getAuthorsCount()));
+    }
+
+    @Benchmark
+    public void forEach(Blackhole blackhole) {
+        bookRepository.forEach(blackhole::consume);
+    }
+
+    private JdbcBookRepository repository(NamedParameterJdbcOperations namedJdbc) {
+        return new JdbcBookRepository(new JdbcGenreRepository(namedJdbc), namedJdbc, namedJdbc.getJdbcOperations(),
+                fetchMode);
+    }
+
+    private void printTraffic() {
+        var traffic = new ResultSetTrafficDataSource(database.getDataSource());
+        var countingRepository = repository(new NamedParameterJdbcTemplate(traffic));
+        Map<String, Consumer<JdbcBookRepository>> operations = new LinkedHashMap<>();
+        operations.put("findById", repository -> repository.findById(randomId(booksCount)));
+        operations.put("findPage", repository -> repository.findPage(randomId(booksCount - PAGE_SIZE), PAGE_SIZE));
+        operations.put("findAllByAuthorId",
+                repository -> repository.findAllByAuthorId(randomId(database.getAuthorsCount())));
+        operations.put("forEach", repository -> repository.forEach(book -> { }));
+        operations.forEach((name, operation) -> {
+            int samples = name.equals("forEach") ? 1 : TRAFFIC_SAMPLES;
+            traffic.reset();
+            for (int i = 0; i < samples; i++) {
+                operation.accept(countingRepository);
+            }
+            System.out.printf("%n%s %s: %.1f rows/op, %.0f bytes/op%n", fetchMode, name,
+                    (double) traffic.getRows() / samples, (double) traffic.getBytes() / samples);
+        });
+    }
+
+    private static long randomId(int count) {
+        return ThreadLocalRandom.current().nextLong(1, Math.max(1, count) + 1);
+    }
+}
@@ -0,0 +1,100 @@
+package ru.otus.hw.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.otus.hw.collections.LongSet;
+import ru.otus.hw.models.Book;
+import ru.otus.hw.repositories.JdbcBookRepository;
+import ru.otus.hw.repositories.JdbcGenreRepository;
+import ru.otus.hw.summaries.BookSummaries;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Сравнивает полные книги (findAllByIds) с компактными (findSummariesByIds) для одного и того же набора id,
+ * как в результатах поиска.
+ * Время и выделение памяти меряет JMH (-prof gc), а удерживаемый результатом объём кучи
+ * один раз считается в setUp как разница занятой кучи после сборки мусора с результатом и без него.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@State(Scope.Benchmark)
+public class BookReadModelBenchmark {
+
+    private static final int GC_ROUNDS = 3;
+
+    @Param({"100000", "1000000"})
+    private int booksCount;
+
+    private BenchmarkDatabase database;
+
+    private JdbcBookRepository bookRepository;
+
+    private LongSet allIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        database = new BenchmarkDatabase(booksCount);
+        var namedJdbc = database.getNamedJdbc();
+        bookRepository = new JdbcBookRepository(new JdbcGenreRepository(namedJdbc), namedJdbc,
+                namedJdbc.getJdbcOperations());
+        allIds = LongSet.of(namedJdbc.getJdbcOperations().queryForList("SELECT id FROM books", Long.class)
+                .stream().mapToLong(Long::longValue).toArray());
+        printRetainedHeap();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+    }
+
+    @Benchmark
+    public List<Book> findAllByIds() {
+        return bookRepository.findAllByIds(allIds);
+    }
+
+    @Benchmark
+    public BookSummaries findSummariesByIds() {
+        return bookRepository.findSummariesByIds(allIds);
+    }
+
+    private void printRetainedHeap() {
+        Map<String, Supplier<Object>> operations = new LinkedHashMap<>();
+        operations.put("findAllByIds", this::findAllByIds);
+        operations.put("findSummariesByIds", this::findSummariesByIds);
+        operations.forEach((name, operation) -> {
+            long usedBefore = usedHeapAfterGc();
+            Object result = operation.get();
+            long retained = usedHeapAfterGc() - usedBefore;
+            System.out.printf("%n%s: retained %.1f MB, %d bytes/book (%s)%n", name, retained / 1024.0 / 1024.0,
+                    retained / booksCount, result.getClass().getSimpleName());
+        });
+    }
+
+    private static long usedHeapAfterGc() {
+        var memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < GC_ROUNDS; i++) {
+            memory.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,96 @@
+package ru.otus.hw.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.otus.hw.collections.LongSet;
+import ru.otus.hw.models.Author;
+import ru.otus.hw.models.Book;
+import ru.otus.hw.repositories.JdbcBookRepository;
+import ru.otus.hw.repositories.JdbcGenreRepository;
+import ru.otus.hw.search.BookSearchIndex;
+import ru.otus.hw.search.SearchHit;
+import ru.otus.hw.search.SearchHits;
+import ru.otus.hw.summaries.BookSummaries;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@State(Scope.Benchmark)
+public class BookSearchBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"1000000"})
+    private int booksCount;
+
+    // Редкое слово из названия, имя автора и редкое слово вместе со словом из всех названий
+    @Param({"%d", "Author_%d", "BookTitle_%d"})
+    private String queryPattern;
+
+    private BenchmarkDatabase database;
+
+    private JdbcBookRepository bookRepository;
+
+    private BookSearchIndex bookSearchIndex;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        database = new BenchmarkDatabase(booksCount);
+        var namedJdbc = database.getNamedJdbc();
+        bookRepository = new JdbcBookRepository(new JdbcGenreRepository(namedJdbc), namedJdbc,
+                namedJdbc.getJdbcOperations());
+        bookSearchIndex = new BookSearchIndex(bookRepository);
+        bookSearchIndex.search("warmup", 0, 1);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+    }
+
+    @Benchmark
+    public SearchHits searchIndex() {
+        return bookSearchIndex.search(randomQuery(), 0, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public BookSummaries searchAndLoadBooks() {
+        var ids = LongSet.of(bookSearchIndex.search(randomQuery(), 0, PAGE_SIZE).hits().stream()
+                .mapToLong(SearchHit::bookId)
+                .toArray());
+        return bookRepository.findSummariesByIds(ids);
+    }
+
+    // Правка книги с тем же названием и автором: индекс не меняется, меряется стоимость переиндексации
+    @Benchmark
+    public void reindexBook() {
+        long bookId = ThreadLocalRandom.current().nextLong(1, booksCount + 1);
+        long authorId = bookId % database.getAuthorsCount() + 1;
+        var book = new Book(bookId, "BookTitle_" + bookId, new Author(authorId, "Author_" + authorId),
+                new ArrayList<>());
+        bookSearchIndex.index(List.of(book));
+    }
+
+    private String randomQuery() {
+        int bound = queryPattern.startsWith("Author") ? database.getAuthorsCount() : booksCount;
+        return queryPattern.formatted(ThreadLocalRandom.current().nextInt(1, bound + 1));
+    }
+}
@@ -0,0 +1,104 @@
+package ru.otus.hw.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.otus.hw.collections.LongSet;
+import ru.otus.hw.models.Author;
+import ru.otus.hw.models.Book;
+import ru.otus.hw.models.Genre;
+import ru.otus.hw.repositories.JdbcAuthorRepository;
+import ru.otus.hw.repositories.JdbcBookRepository;
+import ru.otus.hw.repositories.JdbcGenreRepository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@State(Scope.Benchmark)
+public class JdbcRepositoriesBenchmark {
+
+    private static final int GENRES_BY_IDS_COUNT = 5;
+
+    @Param({"1000", "100000", "1000000"})
+    private int booksCount;
+
+    private BenchmarkDatabase database;
+
+    private JdbcAuthorRepository authorRepository;
+
+    private JdbcGenreRepository genreRepository;
+
+    private JdbcBookRepository bookRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        database = new BenchmarkDatabase(booksCount);
+        var namedJdbc = database.getNamedJdbc();
+        authorRepository = new JdbcAuthorRepository(namedJdbc);
+        genreRepository = new JdbcGenreRepository(namedJdbc);
+        bookRepository = new JdbcBookRepository(genreRepository, namedJdbc, namedJdbc.getJdbcOperations());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+    }
+
+    @Benchmark
+    public List<Book> bookFindAll() {
+        return bookRepository.findAll();
+    }
+
+    @Benchmark
+    public Optional<Book> bookFindById() {
+        return bookRepository.findById(randomId(database.getBooksCount()));
+    }
+
+    @Benchmark
+    public Book bookSave() {
+        var author = new Author(randomId(database.getAuthorsCount()), null);
+        var genres = randomIds(BenchmarkDatabase.GENRES_PER_BOOK, database.getGenresCount()).stream()
+                .mapToObj(id -> new Genre(id, null))
+                .toList();
+        return bookRepository.save(new Book(0, "BenchmarkBook", author, genres));
+    }
+
+    @Benchmark
+    public List<Genre> genreFindAllByIds() {
+        return genreRepository.findAllByIds(randomIds(GENRES_BY_IDS_COUNT, database.getGenresCount()));
+    }
+
+    @Benchmark
+    public Optional<Author> authorFindById() {
+        return authorRepository.findById(randomId(database.getAuthorsCount()));
+    }
+
+    private static long randomId(int count) {
+        return ThreadLocalRandom.current().nextLong(1, count + 1);
+    }
+
+    private static LongSet randomIds(int size, int count) {
+        return LongSet.of(LongStream.generate(() -> randomId(count))
+                .distinct()
+                .limit(Math.min(size, count))
+                .toArray());
+    }
+}
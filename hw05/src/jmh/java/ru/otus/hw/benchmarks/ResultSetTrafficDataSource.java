@@ -0,0 +1,111 @@
+package ru.otus.hw.benchmarks;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.sql.Array;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Считает строки, прочитанные из ResultSet, и объём значений, которые из них забрал маппер.
+ * У встроенной H2 нет сети, поэтому объём оценивается так, как его передал бы протокол:
+ * строки в UTF-8, числа по их ширине, массивы как сумма элементов.
+ */
+class ResultSetTrafficDataSource extends DelegatingDataSource {
+
+    private long rows;
+
+    private long bytes;
+
+    ResultSetTrafficDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    long getRows() {
+        return rows;
+    }
+
+    long getBytes() {
+        return bytes;
+    }
+
+    void reset() {
+        rows = 0;
+        bytes = 0;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return (Connection) proxy(Connection.class, super.getConnection());
+    }
+
+    private Object proxy(Class<?> type, Object target) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            Object result = invoke(target, method, args);
+            if (result instanceof ResultSet resultSet) {
+                return proxy(ResultSet.class, resultSet);
+            }
+            if (result instanceof Statement statement) {
+                return proxy(statementType(statement), statement);
+            }
+            if (type == ResultSet.class) {
+                count(method, result);
+            }
+            return result;
+        };
+        return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private void count(Method method, Object result) throws SQLException {
+        if (method.getName().equals("next")) {
+            rows += Boolean.TRUE.equals(result) ? 1 : 0;
+        } else if (method.getName().startsWith("get")) {
+            bytes += sizeOf(result);
+        }
+    }
+
+    private static long sizeOf(Object value) throws SQLException {
+        if (value instanceof String string) {
+            return string.getBytes(StandardCharsets.UTF_8).length;
+        }
+        if (value instanceof Long || value instanceof Double) {
+            return Long.BYTES;
+        }
+        if (value instanceof Integer || value instanceof Float) {
+            return Integer.BYTES;
+        }
+        if (value instanceof Array array) {
+            long size = 0;
+            for (Object element : (Object[]) array.getArray()) {
+                size += sizeOf(element);
+            }
+            return size;
+        }
+        return 0;
+    }
+
+    private static Class<?> statementType(Statement statement) {
+        if (statement instanceof CallableStatement) {
+            return CallableStatement.class;
+        }
+        return statement instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
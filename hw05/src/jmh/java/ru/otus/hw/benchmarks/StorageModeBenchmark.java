@@ -0,0 +1,142 @@
+package ru.otus.hw.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.FileSystemUtils;
+import ru.otus.hw.models.Author;
+import ru.otus.hw.models.Book;
+import ru.otus.hw.models.Genre;
+import ru.otus.hw.repositories.JdbcBookRepository;
+import ru.otus.hw.repositories.JdbcGenreRepository;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Сравнивает базу в памяти с файловой: mem при каждом запуске заново создаёт схему и данные, file открывает уже
+ * заполненный файл с настройками H2 по умолчанию, file-tuned - с настройками профиля persistent.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@State(Scope.Benchmark)
+public class StorageModeBenchmark {
+
+    private static final int BOOKS_COUNT = 100_000;
+
+    private static final int SAVE_LOOP_ROWS_COUNT = 100;
+
+    private static final int SAVE_ALL_ROWS_COUNT = 1000;
+
+    private static final String TUNED_SETTINGS = ";CACHE_SIZE=65536";
+
+    private static final Path FILES_DIRECTORY = Path.of(System.getProperty("java.io.tmpdir"), "hw05-storage-benchmark");
+
+    @Param({"mem", "file", "file-tuned"})
+    private String storage;
+
+    private BenchmarkDatabase restartedDatabase;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        FileSystemUtils.deleteRecursively(FILES_DIRECTORY);
+        if (!storage.equals("mem")) {
+            new BenchmarkDatabase(url("restart"), BOOKS_COUNT).close();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        FileSystemUtils.deleteRecursively(FILES_DIRECTORY);
+    }
+
+    // Время от открытия базы до первого запроса к данным, как при старте приложения; закрытие не замеряется
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 3)
+    @Measurement(iterations = 10)
+    public long restart() {
+        restartedDatabase = new BenchmarkDatabase(url("restart"), BOOKS_COUNT);
+        return restartedDatabase.getNamedJdbc().getJdbcOperations()
+                .queryForObject("SELECT COUNT(*) FROM books", Long.class);
+    }
+
+    @TearDown(Level.Invocation)
+    public void closeRestartedDatabase() {
+        if (restartedDatabase != null) {
+            restartedDatabase.close();
+            restartedDatabase = null;
+        }
+    }
+
+    // Каждая книга сохраняется в своей транзакции
+    @Benchmark
+    public List<Book> bookSaveLoop(OpenDatabase database) {
+        List<Book> saved = new ArrayList<>(SAVE_LOOP_ROWS_COUNT);
+        for (Book book : database.newBooks(SAVE_LOOP_ROWS_COUNT)) {
+            saved.add(database.bookRepository.save(book));
+        }
+        return saved;
+    }
+
+    @Benchmark
+    public List<Book> bookSaveAll(OpenDatabase database) {
+        return database.bookRepository.saveAll(database.newBooks(SAVE_ALL_ROWS_COUNT));
+    }
+
+    private String url(String name) {
+        return switch (storage) {
+            case "mem" -> "jdbc:h2:mem:" + name;
+            case "file" -> "jdbc:h2:file:" + FILES_DIRECTORY.resolve(name);
+            case "file-tuned" -> "jdbc:h2:file:" + FILES_DIRECTORY.resolve(name) + TUNED_SETTINGS;
+            default -> throw new IllegalArgumentException("Unknown storage " + storage);
+        };
+    }
+
+    @State(Scope.Benchmark)
+    public static class OpenDatabase {
+
+        private BenchmarkDatabase database;
+
+        private JdbcBookRepository bookRepository;
+
+        @Setup(Level.Trial)
+        public void open(StorageModeBenchmark benchmark) {
+            database = new BenchmarkDatabase(benchmark.url("write"), BOOKS_COUNT);
+            var namedJdbc = database.getNamedJdbc();
+            bookRepository = new JdbcBookRepository(new JdbcGenreRepository(namedJdbc), namedJdbc,
+                    namedJdbc.getJdbcOperations());
+        }
+
+        @TearDown(Level.Trial)
+        public void close() {
+            database.close();
+        }
+
+        private List<Book> newBooks(int count) {
+            int authorsCount = database.getAuthorsCount();
+            int genresCount = database.getGenresCount();
+            return IntStream.range(0, count)
+                    .mapToObj(i -> new Book(0, "BenchmarkBook_" + i, new Author(i % authorsCount + 1, null),
+                            List.of(new Genre(i % genresCount + 1, null), new Genre((i + 1) % genresCount + 1, null))))
+                    .toList();
+        }
+    }
+}
@@ -2,8 +2,13 @@ package ru.otus.hw;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import ru.otus.hw.config.ImportProperties;
+import ru.otus.hw.config.RepositoryCacheProperties;
+import ru.otus.hw.config.SlowQueryLogProperties;
 
 @SpringBootApplication
+@EnableConfigurationProperties({RepositoryCacheProperties.class, ImportProperties.class, SlowQueryLogProperties.class})
 public class Application {
 
 	public static void main(String[] args) {
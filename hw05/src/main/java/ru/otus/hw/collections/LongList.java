@@ -0,0 +1,69 @@
+package ru.otus.hw.collections;
+
+import java.util.Arrays;
+
+/**
+ * Растущий список long на примитивном массиве, без упаковки значений.
+ */
+public final class LongList {
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    private long[] values;
+
+    private int size;
+
+    public LongList() {
+        this(INITIAL_CAPACITY);
+    }
+
+    public LongList(int capacity) {
+        values = new long[Math.max(capacity, 1)];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long get(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Index %d out of bounds for size %d".formatted(index, size));
+        }
+        return values[index];
+    }
+
+    public void add(long value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, values.length * 2);
+        }
+        values[size++] = value;
+    }
+
+    public long[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+
+    // Значения с позиции from включительно до to исключительно
+    public long[] toArray(int from, int to) {
+        if (from < 0 || to > size || from > to) {
+            throw new IndexOutOfBoundsException("Range [%d, %d) out of bounds for size %d".formatted(from, to, size));
+        }
+        return Arrays.copyOfRange(values, from, to);
+    }
+
+    public LongSet toSet() {
+        long[] sorted = toArray();
+        Arrays.sort(sorted);
+        int distinctCount = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[distinctCount - 1]) {
+                sorted[distinctCount++] = sorted[i];
+            }
+        }
+        return LongSet.wrapSorted(distinctCount == sorted.length ? sorted : Arrays.copyOf(sorted, distinctCount));
+    }
+}
@@ -0,0 +1,115 @@
+package ru.otus.hw.collections;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.LongConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+/**
+ * Неизменяемый набор id на примитивном массиве: значения без повторов и по возрастанию.
+ */
+public final class LongSet {
+
+    private static final LongSet EMPTY = new LongSet(new long[0]);
+
+    private final long[] values;
+
+    private LongSet(long[] values) {
+        this.values = values;
+    }
+
+    public static LongSet of(long... values) {
+        if (values.length == 0) {
+            return EMPTY;
+        }
+        return new LongSet(LongStream.of(values).sorted().distinct().toArray());
+    }
+
+    public static LongSet copyOf(Collection<? extends Long> values) {
+        return new LongSet(values.stream().mapToLong(Long::longValue).sorted().distinct().toArray());
+    }
+
+    // values уже отсортирован по возрастанию без повторов и больше никуда не передаётся
+    static LongSet wrapSorted(long[] values) {
+        return values.length == 0 ? EMPTY : new LongSet(values);
+    }
+
+    public int size() {
+        return values.length;
+    }
+
+    public boolean isEmpty() {
+        return values.length == 0;
+    }
+
+    public long get(int index) {
+        return values[index];
+    }
+
+    public boolean contains(long value) {
+        return indexOf(value) >= 0;
+    }
+
+    // Позиция значения в наборе или отрицательное число, если его нет
+    public int indexOf(long value) {
+        int index = Arrays.binarySearch(values, value);
+        return index >= 0 ? index : -1;
+    }
+
+    public void forEach(LongConsumer action) {
+        for (long value : values) {
+            action.accept(value);
+        }
+    }
+
+    public LongStream stream() {
+        return Arrays.stream(values);
+    }
+
+    public long[] toArray() {
+        return values.clone();
+    }
+
+    // Значения упаковываются по одному при чтении: для параметров JDBC и ключей кешей
+    public List<Long> boxed() {
+        return new BoxedList(values);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof LongSet other && Arrays.equals(values, other.values);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(values);
+    }
+
+    @Override
+    public String toString() {
+        return stream().mapToObj(Long::toString).collect(Collectors.joining(", ", "[", "]"));
+    }
+
+    private static class BoxedList extends AbstractList<Long> implements RandomAccess {
+
+        private final long[] values;
+
+        BoxedList(long[] values) {
+            this.values = values;
+        }
+
+        @Override
+        public Long get(int index) {
+            return values[index];
+        }
+
+        @Override
+        public int size() {
+            return values.length;
+        }
+    }
+}
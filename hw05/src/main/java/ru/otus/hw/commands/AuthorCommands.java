@@ -3,11 +3,11 @@ package ru.otus.hw.commands;
 import lombok.RequiredArgsConstructor;
 import org.springframework.shell.standard.ShellComponent;
 import org.springframework.shell.standard.ShellMethod;
+import org.springframework.shell.standard.ShellOption;
 import ru.otus.hw.converters.AuthorConverter;
+import ru.otus.hw.models.Author;
 import ru.otus.hw.services.AuthorService;
 
-import java.util.stream.Collectors;
-
 @RequiredArgsConstructor
 @ShellComponent
 public class AuthorCommands {
@@ -16,11 +16,19 @@ public class AuthorCommands {
 
     private final AuthorConverter authorConverter;
 
+    private final ShellRowsPrinter rowsPrinter;
+
+    // aa --after 10 --limit 5 --pager
     @ShellMethod(value = "Find all authors", key = "aa")
-    public String findAllAuthors() {
-        return authorService.findAll().stream()
-                .map(authorConverter::authorToString)
-                .collect(Collectors.joining("," + System.lineSeparator()));
+    public void findAllAuthors(@ShellOption(defaultValue = "0") long after,
+                               @ShellOption(defaultValue = "0") int limit,
+                               @ShellOption(defaultValue = "false") boolean pager) {
+        if (after <= 0 && limit <= 0 && !pager) {
+            rowsPrinter.printAll(authorService::forEach, authorConverter::appendTo);
+            return;
+        }
+        rowsPrinter.printPages("aa", authorService::findPage, Author::getId, authorConverter::appendTo,
+                after, limit, pager);
     }
 
     @ShellMethod(value = "Find author by id", key = "abid")
@@ -37,10 +45,10 @@ public class AuthorCommands {
         return authorConverter.authorToString(savedAuthor);
     }
 
-    // aupd 1 newName
-    @ShellMethod(value = "Update author", key = "aupd")
-    public String updateAuthor(long id, String fullName) {
-        var savedAuthor = authorService.update(id, fullName);
+    // aupd 1 newName --version 3
+    @ShellMethod(value = "Update author, fails if it was changed after --version", key = "aupd")
+    public String updateAuthor(long id, String fullName, long version) {
+        var savedAuthor = authorService.update(id, fullName, version);
         return authorConverter.authorToString(savedAuthor);
     }
 
@@ -3,11 +3,14 @@ package ru.otus.hw.commands;
 import lombok.RequiredArgsConstructor;
 import org.springframework.shell.standard.ShellComponent;
 import org.springframework.shell.standard.ShellMethod;
+import org.springframework.shell.standard.ShellOption;
+import ru.otus.hw.collections.LongSet;
 import ru.otus.hw.converters.BookConverter;
+import ru.otus.hw.models.Book;
+import ru.otus.hw.repositories.GenreMatch;
 import ru.otus.hw.services.BookService;
 
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.nio.file.Path;
 
 @SuppressWarnings({"SpellCheckingInspection", "unused"})
 @RequiredArgsConstructor
@@ -18,11 +21,19 @@ public class BookCommands {
 
     private final BookConverter bookConverter;
 
+    private final ShellRowsPrinter rowsPrinter;
+
+    // ab --after 100 --limit 50 --pager
     @ShellMethod(value = "Find all books", key = "ab")
-    public String findAllBooks() {
-        return bookService.findAll().stream()
-                .map(bookConverter::bookToString)
-                .collect(Collectors.joining("," + System.lineSeparator()));
+    public void findAllBooks(@ShellOption(defaultValue = "0") long after,
+                             @ShellOption(defaultValue = "0") int limit,
+                             @ShellOption(defaultValue = "false") boolean pager) {
+        if (after <= 0 && limit <= 0 && !pager) {
+            rowsPrinter.printAll(bookService::forEach, bookConverter::appendTo);
+            return;
+        }
+        rowsPrinter.printPages("ab", bookService::findPage, Book::getId, bookConverter::appendTo,
+                after, limit, pager);
     }
 
     @ShellMethod(value = "Find book by id", key = "bbid")
@@ -32,20 +43,64 @@ public class BookCommands {
                 .orElse("Book with id %d not found".formatted(id));
     }
 
+    // bbaid 1
+    @ShellMethod(value = "Find books by author id", key = "bbaid")
+    public void findBooksByAuthorId(long authorId) {
+        rowsPrinter.<Book>printAll(action -> bookService.forEachByAuthorId(authorId, action),
+                bookConverter::appendTo);
+    }
+
+    // bbgids 1,2 --match all
+    @ShellMethod(value = "Find books having any or all of the genres", key = "bbgids")
+    public void findBooksByGenreIds(LongSet genresIds,
+                                    @ShellOption(defaultValue = "ANY") GenreMatch match) {
+        rowsPrinter.<Book>printAll(action -> bookService.forEachByGenreIds(genresIds, match, action),
+                bookConverter::appendTo);
+    }
+
+    // bs "title words or author name" --page 2 --size 20
+    @ShellMethod(value = "Search books by title and author name", key = "bs")
+    public String searchBooks(String query,
+                              @ShellOption(defaultValue = "1") int page,
+                              @ShellOption(defaultValue = "20") int size) {
+        var searchPage = bookService.search(query, page, size);
+        var result = new StringBuilder("Found %s%d books".formatted(
+                searchPage.exact() ? "" : "at least ", searchPage.totalHits()));
+        long position = (page - 1L) * size;
+        for (var scoredBook : searchPage.books()) {
+            result.append(System.lineSeparator()).append(++position).append(". [")
+                    .append("%.2f".formatted(scoredBook.score())).append("] ");
+            bookConverter.appendTo(result, scoredBook.book(), searchPage.genres());
+        }
+        if ((long) page * size < searchPage.totalHits()) {
+            result.append(System.lineSeparator())
+                    .append("Next page: bs \"%s\" --page %d --size %d".formatted(query, page + 1, size));
+        }
+        return result.toString();
+    }
+
     // bins newBook 1 1,6
     @ShellMethod(value = "Insert book", key = "bins")
-    public String insertBook(String title, long authorId, Set<Long> genresIds) {
+    public String insertBook(String title, long authorId, LongSet genresIds) {
         var savedBook = bookService.insert(title, authorId, genresIds);
         return bookConverter.bookToString(savedBook);
     }
 
-    // bupd 4 editedBook 3 2,5
-    @ShellMethod(value = "Update book", key = "bupd")
-    public String updateBook(long id, String title, long authorId, Set<Long> genresIds) {
-        var savedBook = bookService.update(id, title, authorId, genresIds);
+    // bupd 4 editedBook 3 2,5 --version 1
+    @ShellMethod(value = "Update book, fails if it was changed after --version", key = "bupd")
+    public String updateBook(long id, String title, long authorId, LongSet genresIds, long version) {
+        var savedBook = bookService.update(id, title, authorId, genresIds, version);
         return bookConverter.bookToString(savedBook);
     }
 
+    // bimp /path/to/catalog.csv
+    @ShellMethod(value = "Import books from csv or jsonl catalog file", key = "bimp")
+    public String importBooks(String path) {
+        var report = bookService.importFrom(Path.of(path));
+        return "Imported %d books in %d ms (%.1f rows/sec)".formatted(
+                report.booksCount(), report.elapsed().toMillis(), report.rowsPerSecond());
+    }
+
     // bdel 4
     @ShellMethod(value = "Delete book by id", key = "bdel")
     public void deleteBook(long id) {
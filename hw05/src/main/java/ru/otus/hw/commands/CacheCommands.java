@@ -0,0 +1,34 @@
+package ru.otus.hw.commands;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.shell.standard.ShellComponent;
+import org.springframework.shell.standard.ShellMethod;
+
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@RequiredArgsConstructor
+@ShellComponent
+public class CacheCommands {
+
+    private final Map<String, Cache<?, ?>> caches;
+
+    @ShellMethod(value = "Show cache statistics", key = "cstats")
+    public String showCacheStats() {
+        return caches.entrySet().stream()
+                .map(entry -> cacheStatsToString(entry.getKey(), entry.getValue()))
+                .collect(Collectors.joining(System.lineSeparator()));
+    }
+
+    private static String cacheStatsToString(String name, Cache<?, ?> cache) {
+        var stats = cache.stats();
+        return "%s: size: %d, hits: %d, misses: %d, hit rate: %.2f, evictions: %d".formatted(
+                name,
+                cache.estimatedSize(),
+                stats.hitCount(),
+                stats.missCount(),
+                stats.hitRate(),
+                stats.evictionCount());
+    }
+}
@@ -3,10 +3,12 @@ package ru.otus.hw.commands;
 import lombok.RequiredArgsConstructor;
 import org.springframework.shell.standard.ShellComponent;
 import org.springframework.shell.standard.ShellMethod;
+import org.springframework.shell.standard.ShellOption;
+import ru.otus.hw.collections.LongSet;
 import ru.otus.hw.converters.GenreConverter;
+import ru.otus.hw.models.Genre;
 import ru.otus.hw.services.GenreService;
 
-import java.util.Set;
 import java.util.stream.Collectors;
 
 @RequiredArgsConstructor
@@ -17,11 +19,19 @@ public class GenreCommands {
 
     private final GenreConverter genreConverter;
 
+    private final ShellRowsPrinter rowsPrinter;
+
+    // ag --after 10 --limit 5 --pager
     @ShellMethod(value = "Find all genres", key = "ag")
-    public String findAllGenres() {
-        return genreService.findAll().stream()
-                .map(genreConverter::genreToString)
-                .collect(Collectors.joining("," + System.lineSeparator()));
+    public void findAllGenres(@ShellOption(defaultValue = "0") long after,
+                              @ShellOption(defaultValue = "0") int limit,
+                              @ShellOption(defaultValue = "false") boolean pager) {
+        if (after <= 0 && limit <= 0 && !pager) {
+            rowsPrinter.printAll(genreService::forEach, genreConverter::appendTo);
+            return;
+        }
+        rowsPrinter.printPages("ag", genreService::findPage, Genre::getId, genreConverter::appendTo,
+                after, limit, pager);
     }
 
     @ShellMethod(value = "Find genre by id", key = "gbid")
@@ -33,8 +43,8 @@ public class GenreCommands {
 
     // agbids 2,3
     @ShellMethod(value = "Find all genres by ids", key = "agbids")
-    public String findAllGenres(Set<Long> ids) {
-        return genreService.findAll().stream()
+    public String findAllGenres(LongSet ids) {
+        return genreService.findAllByIds(ids).stream()
                 .map(genreConverter::genreToString)
                 .collect(Collectors.joining("," + System.lineSeparator()));
     }
@@ -46,10 +56,10 @@ public class GenreCommands {
         return genreConverter.genreToString(savedGenre);
     }
 
-    // gupd 1 newName
-    @ShellMethod(value = "Update genre", key = "gupd")
-    public String updateGenre(long id, String name) {
-        var savedGenre = genreService.update(id, name);
+    // gupd 1 newName --version 3
+    @ShellMethod(value = "Update genre, fails if it was changed after --version", key = "gupd")
+    public String updateGenre(long id, String name, long version) {
+        var savedGenre = genreService.update(id, name, version);
         return genreConverter.genreToString(savedGenre);
     }
 
@@ -0,0 +1,104 @@
+package ru.otus.hw.commands;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import lombok.RequiredArgsConstructor;
+import org.springframework.shell.standard.ShellComponent;
+import org.springframework.shell.standard.ShellMethod;
+import org.springframework.shell.standard.ShellOption;
+import ru.otus.hw.metrics.RepositoryMethodTimer;
+import ru.otus.hw.metrics.SlowQueryDataSource;
+import ru.otus.hw.metrics.SlowQueryLog;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@RequiredArgsConstructor
+@ShellComponent
+public class MetricsCommands {
+
+    private static final String POOL_PREFIX = "hikaricp.connections";
+
+    private static final List<String> POOL_GAUGES = List.of("active", "idle", "pending", "max");
+
+    private static final List<String> POOL_TIMERS = List.of("acquire", "usage", "creation");
+
+    private final MeterRegistry meterRegistry;
+
+    private final SlowQueryLog slowQueryLog;
+
+    // Перцентили считаются по скользящему окну последних минут, а count и max - за всё время работы.
+    // Вызов метода репозитория включает вложенные декораторы, а запрос записывается только на метод, выполнивший его
+    @ShellMethod(value = "Show connection pool, repository and statement timings", key = "stats")
+    public String showStats() {
+        List<String> lines = new ArrayList<>();
+        meterRegistry.find(POOL_PREFIX + ".max").gauges().forEach(maxGauge -> {
+            String pool = maxGauge.getId().getTag("pool");
+            lines.add("Connection pool %s:".formatted(pool));
+            lines.add("  " + poolGaugesToString(pool));
+            POOL_TIMERS.forEach(name -> {
+                Timer timer = meterRegistry.find(POOL_PREFIX + "." + name).tag("pool", pool).timer();
+                if (timer != null) {
+                    lines.add("  " + timerToString(name, timer));
+                }
+            });
+        });
+        lines.add("Repository methods:");
+        meterRegistry.find(RepositoryMethodTimer.TIMER_NAME).timers().stream()
+                .map(timer -> timerToString(
+                        timer.getId().getTag("repository") + "." + timer.getId().getTag("method"), timer))
+                .sorted(Comparator.naturalOrder())
+                .forEach(line -> lines.add("  " + line));
+        lines.add("Repository statements:");
+        meterRegistry.find(SlowQueryDataSource.TIMER_NAME).timers().stream()
+                .map(timer -> timerToString(timer.getId().getTag("method"), timer))
+                .sorted(Comparator.naturalOrder())
+                .forEach(line -> lines.add("  " + line));
+        return String.join(System.lineSeparator(), lines);
+    }
+
+    @ShellMethod(value = "Show or set slow query log threshold in milliseconds", key = "sqlt")
+    public String slowQueryThreshold(@ShellOption(defaultValue = ShellOption.NULL) Long millis) {
+        if (millis != null) {
+            slowQueryLog.setThreshold(Duration.ofMillis(millis));
+        }
+        return "Slow query threshold: %d ms%s".formatted(slowQueryLog.getThreshold().toMillis(),
+                slowQueryLog.isEnabled() ? "" : " (slow query log is disabled)");
+    }
+
+    private String poolGaugesToString(String pool) {
+        List<String> values = new ArrayList<>();
+        POOL_GAUGES.forEach(name -> {
+            Gauge gauge = meterRegistry.find(POOL_PREFIX + "." + name).tag("pool", pool).gauge();
+            if (gauge != null) {
+                values.add("%s: %.0f".formatted(name, gauge.value()));
+            }
+        });
+        var timeouts = meterRegistry.find(POOL_PREFIX + ".timeout").tag("pool", pool).counter();
+        if (timeouts != null) {
+            values.add("timeouts: %.0f".formatted(timeouts.count()));
+        }
+        return String.join(", ", values);
+    }
+
+    private static String timerToString(String name, Timer timer) {
+        HistogramSnapshot snapshot = timer.takeSnapshot();
+        StringBuilder out = new StringBuilder()
+                .append(name).append(": count: ").append(snapshot.count());
+        for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+            out.append(", p").append(Math.round(percentile.percentile() * 100)).append(": ")
+                    .append(millis(percentile.value(TimeUnit.MILLISECONDS)));
+        }
+        return out.append(", max: ").append(millis(snapshot.max(TimeUnit.MILLISECONDS))).toString();
+    }
+
+    private static String millis(double value) {
+        return "%.3f ms".formatted(value);
+    }
+}
@@ -0,0 +1,167 @@
+package ru.otus.hw.commands;
+
+import lombok.RequiredArgsConstructor;
+import org.jline.terminal.Attributes;
+import org.jline.terminal.Terminal;
+import org.jline.utils.InfoCmp;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * Печатает строки списков в терминал по мере их чтения из базы, не собирая весь результат в одну строку.
+ */
+@RequiredArgsConstructor
+@Component
+public class ShellRowsPrinter {
+
+    private static final String ROWS_DELIMITER = ",";
+
+    private static final int DEFAULT_PAGE_SIZE = 20;
+
+    // Больше строк за один запрос не читается ни при каком --limit
+    static final int UNPAGED_CHUNK_SIZE = 1000;
+
+    private static final int ROWS_PER_FLUSH = 100;
+
+    private static final int ROW_BUFFER_CAPACITY = 256;
+
+    private static final String PAGER_PROMPT = "-- More (Enter/Space: next page, q: quit) --";
+
+    private final Terminal terminal;
+
+    /**
+     * Печатает все строки, которые источник передаёт в колбэк.
+     */
+    public <T> void printAll(Consumer<Consumer<T>> source, BiConsumer<StringBuilder, T> renderer) {
+        var writer = new RowsWriter(terminal.writer());
+        source.accept(row -> writer.write(renderer, row));
+        writer.finish();
+    }
+
+    /**
+     * Печатает строки постранично через keyset-пагинацию начиная с afterId, читая не больше
+     * UNPAGED_CHUNK_SIZE строк за запрос. С пейджером после каждой страницы высотой в терминал ждёт нажатия клавиши.
+     * Если вывод остановлен лимитом или пейджером, а строки ещё остались, печатает команду для следующей страницы.
+     */
+    public <T> void printPages(String commandKey, PageLoader<T> pageLoader, ToLongFunction<T> idExtractor,
+                               BiConsumer<StringBuilder, T> renderer, long afterId, int limit, boolean pager) {
+        var writer = new RowsWriter(terminal.writer());
+        int pageSize = pager ? Math.min(pagerPageSize(), UNPAGED_CHUNK_SIZE) : UNPAGED_CHUNK_SIZE;
+        long remaining = limit > 0 ? limit : Long.MAX_VALUE;
+        long lastId = afterId;
+        while (true) {
+            int requested = (int) Math.min(pageSize, remaining);
+            // Лишняя строка только показывает, есть ли что-то за страницей, и не печатается
+            List<T> rows = pageLoader.load(lastId, requested + 1);
+            List<T> page = rows.size() > requested ? rows.subList(0, requested) : rows;
+            page.forEach(row -> writer.write(renderer, row));
+            if (page.size() == rows.size()) {
+                writer.finish();
+                return;
+            }
+            lastId = idExtractor.applyAsLong(page.get(page.size() - 1));
+            remaining -= page.size();
+            if (remaining == 0) {
+                writer.finish();
+                break;
+            }
+            if (pager) {
+                writer.endPage();
+                if (!waitForNextPage()) {
+                    break;
+                }
+            }
+        }
+        String nextPageOptions = limit > 0 ? "--limit " + limit : "--pager";
+        terminal.writer().println("Next page: %s --after %d %s".formatted(commandKey, lastId, nextPageOptions));
+        terminal.flush();
+    }
+
+    private int pagerPageSize() {
+        // В неинтерактивном режиме высота терминала неизвестна
+        int height = terminal.getHeight();
+        return height > 1 ? height - 1 : DEFAULT_PAGE_SIZE;
+    }
+
+    private boolean waitForNextPage() {
+        terminal.writer().print(PAGER_PROMPT);
+        terminal.flush();
+        Attributes attributes = terminal.enterRawMode();
+        try {
+            int key = terminal.reader().read();
+            return key != 'q' && key != 'Q' && key >= 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            terminal.setAttributes(attributes);
+            terminal.puts(InfoCmp.Capability.carriage_return);
+            terminal.puts(InfoCmp.Capability.clr_eol);
+            terminal.flush();
+        }
+    }
+
+    @FunctionalInterface
+    public interface PageLoader<T> {
+        List<T> load(long afterId, int limit);
+    }
+
+    // Разделитель дописывается перед следующей строкой, так как заранее неизвестно, последняя ли строка
+    private static class RowsWriter {
+
+        private final PrintWriter writer;
+
+        // Буферы переиспользуются между строками, чтобы не создавать String на каждую строку
+        private final StringBuilder row = new StringBuilder(ROW_BUFFER_CAPACITY);
+
+        private char[] chars = new char[ROW_BUFFER_CAPACITY];
+
+        private boolean lineOpen;
+
+        private long rowsCount;
+
+        RowsWriter(PrintWriter writer) {
+            this.writer = writer;
+        }
+
+        <T> void write(BiConsumer<StringBuilder, T> renderer, T value) {
+            if (lineOpen) {
+                writer.println(ROWS_DELIMITER);
+            }
+            row.setLength(0);
+            renderer.accept(row, value);
+            if (chars.length < row.length()) {
+                chars = new char[row.capacity()];
+            }
+            row.getChars(0, row.length(), chars, 0);
+            writer.write(chars, 0, row.length());
+            lineOpen = true;
+            // Первая строка сразу, дальше сбрасываем буфер пачками, а не на каждую строку
+            if (rowsCount++ % ROWS_PER_FLUSH == 0) {
+                writer.flush();
+            }
+        }
+
+        void endPage() {
+            if (lineOpen) {
+                writer.println(ROWS_DELIMITER);
+                lineOpen = false;
+            }
+            writer.flush();
+        }
+
+        void finish() {
+            if (lineOpen) {
+                writer.println();
+                lineOpen = false;
+            }
+            writer.flush();
+        }
+    }
+}
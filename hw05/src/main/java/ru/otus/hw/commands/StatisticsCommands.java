@@ -0,0 +1,52 @@
+package ru.otus.hw.commands;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.shell.standard.ShellComponent;
+import org.springframework.shell.standard.ShellMethod;
+import org.springframework.shell.standard.ShellOption;
+import ru.otus.hw.services.LibraryStatisticsService;
+import ru.otus.hw.statistics.BooksCount;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@SuppressWarnings({"SpellCheckingInspection", "unused"})
+@RequiredArgsConstructor
+@ShellComponent
+public class StatisticsCommands {
+
+    private final LibraryStatisticsService statisticsService;
+
+    private final ShellRowsPrinter rowsPrinter;
+
+    // lstats --top 5
+    @ShellMethod(value = "Show library totals with top authors and genres by books count", key = "lstats")
+    public String showLibraryStatistics(@ShellOption(defaultValue = "10") int top) {
+        var statistics = statisticsService.getStatistics(top);
+        var totals = statistics.totals();
+        List<String> lines = new ArrayList<>();
+        lines.add("Books: %d, authors: %d, genres: %d".formatted(
+                totals.booksCount(), totals.authorsCount(), totals.genresCount()));
+        lines.add("Top authors:");
+        statistics.topAuthors().forEach(count -> lines.add("  " + appendTo(new StringBuilder(), count)));
+        lines.add("Top genres:");
+        statistics.topGenres().forEach(count -> lines.add("  " + appendTo(new StringBuilder(), count)));
+        return String.join(System.lineSeparator(), lines);
+    }
+
+    @ShellMethod(value = "Show books count of every author", key = "astats")
+    public void showAuthorsBooksCounts() {
+        rowsPrinter.printAll(statisticsService::forEachAuthorBooksCount, StatisticsCommands::appendTo);
+    }
+
+    @ShellMethod(value = "Show books count of every genre", key = "gstats")
+    public void showGenresBooksCounts() {
+        rowsPrinter.printAll(statisticsService::forEachGenreBooksCount, StatisticsCommands::appendTo);
+    }
+
+    private static StringBuilder appendTo(StringBuilder out, BooksCount count) {
+        return out.append("Id: ").append(count.id())
+                .append(", name: ").append(count.name())
+                .append(", books: ").append(count.booksCount());
+    }
+}
@@ -0,0 +1,22 @@
+package ru.otus.hw.config;
+
+import lombok.Getter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.ConstructorBinding;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@Getter
+@ConfigurationProperties(prefix = "app.import")
+public class ImportProperties {
+
+    private final int batchSize;
+
+    private final int chunkSize;
+
+    @ConstructorBinding
+    public ImportProperties(@DefaultValue("500") int batchSize,
+                            @DefaultValue("5000") int chunkSize) {
+        this.batchSize = batchSize;
+        this.chunkSize = chunkSize;
+    }
+}
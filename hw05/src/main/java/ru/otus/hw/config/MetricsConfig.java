@@ -0,0 +1,33 @@
+package ru.otus.hw.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.otus.hw.metrics.RepositoryMetricsPostProcessor;
+import ru.otus.hw.metrics.SlowQueryDataSourcePostProcessor;
+import ru.otus.hw.metrics.SlowQueryLog;
+
+@Configuration
+public class MetricsConfig {
+
+    // Зависимости пост-процессоров берутся лениво: сами пост-процессоры создаются раньше остальных бинов
+    @Bean
+    public static RepositoryMetricsPostProcessor repositoryMetricsPostProcessor(
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        return new RepositoryMetricsPostProcessor(meterRegistry);
+    }
+
+    // DataSource оборачивается всегда: он же замеряет каждый запрос для stats, а app.slow-query-log.enabled
+    // выключает только запись медленных запросов в лог
+    @Bean
+    public static SlowQueryDataSourcePostProcessor slowQueryDataSourcePostProcessor(
+            ObjectProvider<SlowQueryLog> slowQueryLog, ObjectProvider<MeterRegistry> meterRegistry) {
+        return new SlowQueryDataSourcePostProcessor(slowQueryLog, meterRegistry);
+    }
+
+    @Bean
+    public SlowQueryLog slowQueryLog(SlowQueryLogProperties properties) {
+        return new SlowQueryLog(properties.isEnabled(), properties.getThreshold());
+    }
+}
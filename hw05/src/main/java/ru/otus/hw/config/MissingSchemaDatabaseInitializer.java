@@ -0,0 +1,41 @@
+package ru.otus.hw.config;
+
+import org.springframework.boot.autoconfigure.sql.init.SqlDataSourceScriptDatabaseInitializer;
+import org.springframework.boot.autoconfigure.sql.init.SqlInitializationProperties;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Выполняет schema.sql и data.sql, только если в базе ещё нет таблицы книг. Нужен для постоянной базы:
+ * при повторном запуске схема и данные уже на месте, и повторная вставка data.sql их бы задублировала.
+ */
+public class MissingSchemaDatabaseInitializer extends SqlDataSourceScriptDatabaseInitializer {
+
+    private static final String MARKER_TABLE = "BOOKS";
+
+    private final DataSource dataSource;
+
+    public MissingSchemaDatabaseInitializer(DataSource dataSource, SqlInitializationProperties properties) {
+        super(dataSource, properties);
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public boolean initializeDatabase() {
+        return !schemaExists() && super.initializeDatabase();
+    }
+
+    private boolean schemaExists() {
+        try (Connection connection = dataSource.getConnection();
+             ResultSet tables = connection.getMetaData()
+                     .getTables(connection.getCatalog(), null, MARKER_TABLE, new String[]{"TABLE"})) {
+            return tables.next();
+        } catch (SQLException e) {
+            throw new DataAccessResourceFailureException("Failed to check database schema", e);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package ru.otus.hw.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.otus.hw.models.Author;
+import ru.otus.hw.models.Genre;
+
+@Configuration
+public class RepositoryCacheConfig {
+
+    @Bean
+    public Cache<Long, Author> authorsCache(RepositoryCacheProperties properties) {
+        return Caffeine.newBuilder()
+                .maximumSize(properties.getAuthorsMaxSize())
+                .recordStats()
+                .build();
+    }
+
+    @Bean
+    public Cache<Long, Genre> genresCache(RepositoryCacheProperties properties) {
+        return Caffeine.newBuilder()
+                .maximumSize(properties.getGenresMaxSize())
+                .recordStats()
+                .build();
+    }
+}
@@ -0,0 +1,22 @@
+package ru.otus.hw.config;
+
+import lombok.Getter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.ConstructorBinding;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@Getter
+@ConfigurationProperties(prefix = "app.cache")
+public class RepositoryCacheProperties {
+
+    private final long authorsMaxSize;
+
+    private final long genresMaxSize;
+
+    @ConstructorBinding
+    public RepositoryCacheProperties(@DefaultValue("10000") long authorsMaxSize,
+                                     @DefaultValue("1000") long genresMaxSize) {
+        this.authorsMaxSize = authorsMaxSize;
+        this.genresMaxSize = genresMaxSize;
+    }
+}
@@ -0,0 +1,20 @@
+package ru.otus.hw.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.sql.init.SqlInitializationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+@ConditionalOnProperty(prefix = "app.sql.init", name = "only-if-missing", havingValue = "true")
+public class SchemaInitializationConfig {
+
+    // Заменяет инициализатор Spring Boot, который выполнял бы скрипты при каждом запуске
+    @Bean
+    public MissingSchemaDatabaseInitializer dataSourceScriptDatabaseInitializer(DataSource dataSource,
+                                                                              SqlInitializationProperties properties) {
+        return new MissingSchemaDatabaseInitializer(dataSource, properties);
+    }
+}
@@ -0,0 +1,24 @@
+package ru.otus.hw.config;
+
+import lombok.Getter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.ConstructorBinding;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@Getter
+@ConfigurationProperties(prefix = "app.slow-query-log")
+public class SlowQueryLogProperties {
+
+    private final boolean enabled;
+
+    private final Duration threshold;
+
+    @ConstructorBinding
+    public SlowQueryLogProperties(@DefaultValue("true") boolean enabled,
+                                  @DefaultValue("200ms") Duration threshold) {
+        this.enabled = enabled;
+        this.threshold = threshold;
+    }
+}
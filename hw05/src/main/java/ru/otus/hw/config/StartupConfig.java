@@ -0,0 +1,18 @@
+package ru.otus.hw.config;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.shell.standard.ShellComponent;
+
+@Configuration
+public class StartupConfig {
+
+    // При spring.main.lazy-initialization=true команды и инфраструктура shell всё равно создаются при старте
+    @Bean
+    public static LazyInitializationExcludeFilter shellBeansLazyInitializationExcludeFilter() {
+        return (beanName, beanDefinition, beanType) -> beanType.getPackageName().startsWith("org.springframework.shell")
+                || AnnotatedElementUtils.hasAnnotation(beanType, ShellComponent.class);
+    }
+}
@@ -6,6 +6,17 @@ import ru.otus.hw.models.Author;
 @Component
 public class AuthorConverter {
     public String authorToString(Author author) {
-        return "Id: %d, FullName: %s".formatted(author.getId(), author.getFullName());
+        return appendTo(new StringBuilder(), author).toString();
+    }
+
+    // Версия нужна для --version в aupd, у автора внутри книги она не выводится
+    public StringBuilder appendTo(StringBuilder out, Author author) {
+        return appendTo(out, author.getId(), author.getFullName())
+                .append(", Version: ").append(author.getVersion());
+    }
+
+    public StringBuilder appendTo(StringBuilder out, long id, String fullName) {
+        return out.append("Id: ").append(id)
+                .append(", FullName: ").append(fullName);
     }
 }
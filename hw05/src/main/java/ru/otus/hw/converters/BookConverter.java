@@ -2,26 +2,60 @@ package ru.otus.hw.converters;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
+import ru.otus.hw.models.Author;
 import ru.otus.hw.models.Book;
+import ru.otus.hw.models.Genre;
+import ru.otus.hw.summaries.BookSummary;
+import ru.otus.hw.summaries.GenreDictionary;
 
-import java.util.stream.Collectors;
+import java.util.List;
 
 @RequiredArgsConstructor
 @Component
 public class BookConverter {
+    private static final int ESTIMATED_BOOK_LENGTH = 128;
+
     private final AuthorConverter authorConverter;
 
     private final GenreConverter genreConverter;
 
     public String bookToString(Book book) {
-        var genresString = book.getGenres().stream()
-                .map(genreConverter::genreToString)
-                .map("{%s}"::formatted)
-                .collect(Collectors.joining(", "));
-        return "Id: %d, title: %s, author: {%s}, genres: [%s]".formatted(
-                book.getId(),
-                book.getTitle(),
-                authorConverter.authorToString(book.getAuthor()),
-                genresString);
+        return appendTo(new StringBuilder(ESTIMATED_BOOK_LENGTH), book).toString();
+    }
+
+    // Пишет книгу прямо в переданный буфер, без промежуточных строк на автора и каждый жанр
+    public StringBuilder appendTo(StringBuilder out, Book book) {
+        out.append("Id: ").append(book.getId())
+                .append(", title: ").append(book.getTitle())
+                .append(", author: {");
+        Author author = book.getAuthor();
+        authorConverter.appendTo(out, author.getId(), author.getFullName()).append("}, genres: [");
+        List<Genre> genres = book.getGenres();
+        for (int i = 0; i < genres.size(); i++) {
+            if (i > 0) {
+                out.append(", ");
+            }
+            Genre genre = genres.get(i);
+            out.append('{');
+            genreConverter.appendTo(out, genre.getId(), genre.getName()).append('}');
+        }
+        return out.append("], version: ").append(book.getVersion());
+    }
+
+    // Тот же формат для книги из списка: имена жанров берутся из словаря результата
+    public StringBuilder appendTo(StringBuilder out, BookSummary book, GenreDictionary genres) {
+        out.append("Id: ").append(book.id())
+                .append(", title: ").append(book.title())
+                .append(", author: {");
+        authorConverter.appendTo(out, book.authorId(), book.authorName()).append("}, genres: [");
+        for (int i = 0; i < book.genresCount(); i++) {
+            if (i > 0) {
+                out.append(", ");
+            }
+            long genreId = book.genreId(i);
+            out.append('{');
+            genreConverter.appendTo(out, genreId, genres.name(genreId)).append('}');
+        }
+        return out.append("], version: ").append(book.version());
     }
 }
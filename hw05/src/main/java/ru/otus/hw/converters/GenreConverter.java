@@ -6,6 +6,17 @@ import ru.otus.hw.models.Genre;
 @Component
 public class GenreConverter {
     public String genreToString(Genre genre) {
-        return "Id: %d, Name: %s".formatted(genre.getId(), genre.getName());
+        return appendTo(new StringBuilder(), genre).toString();
+    }
+
+    // Версия нужна для --version в gupd, у жанра внутри книги она не выводится
+    public StringBuilder appendTo(StringBuilder out, Genre genre) {
+        return appendTo(out, genre.getId(), genre.getName())
+                .append(", Version: ").append(genre.getVersion());
+    }
+
+    public StringBuilder appendTo(StringBuilder out, long id, String name) {
+        return out.append("Id: ").append(id)
+                .append(", Name: ").append(name);
     }
 }
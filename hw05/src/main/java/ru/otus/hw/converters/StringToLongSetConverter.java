@@ -0,0 +1,28 @@
+package ru.otus.hw.converters;
+
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.stereotype.Component;
+import ru.otus.hw.collections.LongList;
+import ru.otus.hw.collections.LongSet;
+
+// Разбирает параметры команд вида 1,6 или "2, 5" без упаковки id в Long
+@Component
+public class StringToLongSetConverter implements Converter<String, LongSet> {
+    @Override
+    public LongSet convert(String source) {
+        var ids = new LongList();
+        int from = 0;
+        while (from <= source.length()) {
+            int to = source.indexOf(',', from);
+            if (to < 0) {
+                to = source.length();
+            }
+            String id = source.substring(from, to).strip();
+            if (!id.isEmpty()) {
+                ids.add(Long.parseLong(id));
+            }
+            from = to + 1;
+        }
+        return ids.toSet();
+    }
+}
@@ -0,0 +1,11 @@
+package ru.otus.hw.exceptions;
+
+public class CatalogImportException extends RuntimeException {
+    public CatalogImportException(String message) {
+        super(message);
+    }
+
+    public CatalogImportException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
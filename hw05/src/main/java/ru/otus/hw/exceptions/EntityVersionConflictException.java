@@ -0,0 +1,7 @@
+package ru.otus.hw.exceptions;
+
+public class EntityVersionConflictException extends RuntimeException {
+    public EntityVersionConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,122 @@
+package ru.otus.hw.imports;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.otus.hw.config.ImportProperties;
+import ru.otus.hw.exceptions.CatalogImportException;
+import ru.otus.hw.models.Author;
+import ru.otus.hw.models.Book;
+import ru.otus.hw.models.Genre;
+import ru.otus.hw.repositories.AuthorRepository;
+import ru.otus.hw.repositories.BookRepository;
+import ru.otus.hw.repositories.GenreRepository;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+@RequiredArgsConstructor
+@Component
+public class BookCatalogImporter {
+
+    private final CatalogRecordReader catalogRecordReader;
+
+    private final AuthorRepository authorRepository;
+
+    private final GenreRepository genreRepository;
+
+    private final BookRepository bookRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ImportProperties importProperties;
+
+    public ImportReport importFrom(Path path) {
+        long start = System.nanoTime();
+        var dictionary = new Dictionary(loadAuthors(), loadGenres());
+        long booksCount = 0;
+        try (var records = catalogRecordReader.read(path)) {
+            Iterator<CatalogRecord> iterator = records.iterator();
+            List<CatalogRecord> chunk = new ArrayList<>(importProperties.getChunkSize());
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == importProperties.getChunkSize() || !iterator.hasNext()) {
+                    importChunk(chunk, dictionary);
+                    booksCount += chunk.size();
+                    chunk.clear();
+                }
+            }
+        }
+        return new ImportReport(booksCount, Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    private void importChunk(List<CatalogRecord> chunk, Dictionary dictionary) {
+        transactionTemplate.executeWithoutResult(status -> {
+            createMissingAuthorsAndGenres(chunk, dictionary);
+            List<Book> batch = new ArrayList<>(importProperties.getBatchSize());
+            for (CatalogRecord catalogRecord : chunk) {
+                batch.add(toBook(catalogRecord, dictionary));
+                if (batch.size() == importProperties.getBatchSize()) {
+                    bookRepository.saveAll(batch);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                bookRepository.saveAll(batch);
+            }
+        });
+    }
+
+    private void createMissingAuthorsAndGenres(List<CatalogRecord> chunk, Dictionary dictionary) {
+        List<Author> newAuthors = chunk.stream()
+                .map(CatalogRecord::author)
+                .distinct()
+                .filter(fullName -> !dictionary.authors.containsKey(fullName))
+                .map(fullName -> new Author(0, fullName))
+                .toList();
+        authorRepository.saveAll(newAuthors)
+                .forEach(author -> dictionary.authors.put(author.getFullName(), author));
+
+        List<Genre> newGenres = chunk.stream()
+                .filter(catalogRecord -> catalogRecord.genres() != null)
+                .flatMap(catalogRecord -> catalogRecord.genres().stream())
+                .distinct()
+                .filter(name -> !dictionary.genres.containsKey(name))
+                .map(name -> new Genre(0, name))
+                .toList();
+        genreRepository.saveAll(newGenres)
+                .forEach(genre -> dictionary.genres.put(genre.getName(), genre));
+    }
+
+    private Book toBook(CatalogRecord catalogRecord, Dictionary dictionary) {
+        if (catalogRecord.genres() == null || catalogRecord.genres().isEmpty()) {
+            throw new CatalogImportException("Genres of book '%s' must not be empty".formatted(catalogRecord.title()));
+        }
+        Author author = dictionary.authors.get(catalogRecord.author());
+        List<Genre> genres = catalogRecord.genres().stream()
+                .distinct()
+                .map(dictionary.genres::get)
+                .toList();
+        return new Book(0, catalogRecord.title(), author, genres);
+    }
+
+    private Map<String, Author> loadAuthors() {
+        Map<String, Author> authors = new HashMap<>();
+        authorRepository.findAll().forEach(author -> authors.putIfAbsent(author.getFullName(), author));
+        return authors;
+    }
+
+    private Map<String, Genre> loadGenres() {
+        Map<String, Genre> genres = new HashMap<>();
+        genreRepository.findAll().forEach(genre -> genres.putIfAbsent(genre.getName(), genre));
+        return genres;
+    }
+
+    private record Dictionary(Map<String, Author> authors, Map<String, Genre> genres) {
+    }
+}
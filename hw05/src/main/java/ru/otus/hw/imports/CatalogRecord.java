@@ -0,0 +1,6 @@
+package ru.otus.hw.imports;
+
+import java.util.List;
+
+public record CatalogRecord(String title, String author, List<String> genres) {
+}
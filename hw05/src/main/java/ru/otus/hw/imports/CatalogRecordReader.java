@@ -0,0 +1,88 @@
+package ru.otus.hw.imports;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.opencsv.CSVParserBuilder;
+import com.opencsv.CSVReader;
+import com.opencsv.CSVReaderBuilder;
+import org.springframework.stereotype.Component;
+import ru.otus.hw.exceptions.CatalogImportException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+@Component
+public class CatalogRecordReader {
+
+    private static final char CSV_SEPARATOR = ';';
+
+    private static final int CSV_SKIP_LINES_COUNT = 1;
+
+    private static final String CSV_GENRES_SEPARATOR = "\\|";
+
+    private static final String JSON_LINES_EXTENSION = ".jsonl";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    // Записи читаются лениво, поток нужно закрыть после использования
+    public Stream<CatalogRecord> read(Path path) {
+        try {
+            if (path.getFileName().toString().endsWith(JSON_LINES_EXTENSION)) {
+                return readJsonLines(path);
+            }
+            return readCsv(path);
+        } catch (IOException ex) {
+            throw new CatalogImportException("Error during reading catalog file " + path, ex);
+        }
+    }
+
+    private Stream<CatalogRecord> readJsonLines(Path path) throws IOException {
+        return Files.lines(path, StandardCharsets.UTF_8)
+                .filter(line -> !line.isBlank())
+                .map(this::parseJsonLine);
+    }
+
+    private CatalogRecord parseJsonLine(String line) {
+        try {
+            return objectMapper.readValue(line, CatalogRecord.class);
+        } catch (JsonProcessingException ex) {
+            throw new CatalogImportException("Error during parsing catalog line: " + line, ex);
+        }
+    }
+
+    private Stream<CatalogRecord> readCsv(Path path) throws IOException {
+        CSVReader csvReader = new CSVReaderBuilder(Files.newBufferedReader(path, StandardCharsets.UTF_8))
+                .withCSVParser(new CSVParserBuilder().withSeparator(CSV_SEPARATOR).build())
+                .withSkipLines(CSV_SKIP_LINES_COUNT)
+                .build();
+        return StreamSupport.stream(csvReader.spliterator(), false)
+                .onClose(() -> closeReader(csvReader))
+                .map(CatalogRecordReader::parseCsvLine);
+    }
+
+    private static CatalogRecord parseCsvLine(String[] fields) {
+        if (fields.length < 3) {
+            throw new CatalogImportException("Expected title;author;genres but got: " + String.join(";", fields));
+        }
+        List<String> genres = Arrays.stream(fields[2].split(CSV_GENRES_SEPARATOR))
+                .map(String::strip)
+                .filter(genre -> !genre.isEmpty())
+                .toList();
+        return new CatalogRecord(fields[0].strip(), fields[1].strip(), genres);
+    }
+
+    private static void closeReader(CSVReader csvReader) {
+        try {
+            csvReader.close();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
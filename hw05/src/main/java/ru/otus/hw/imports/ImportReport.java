@@ -0,0 +1,11 @@
+package ru.otus.hw.imports;
+
+import java.time.Duration;
+
+public record ImportReport(long booksCount, Duration elapsed) {
+
+    public double rowsPerSecond() {
+        long millis = Math.max(1, elapsed.toMillis());
+        return booksCount * 1000.0 / millis;
+    }
+}
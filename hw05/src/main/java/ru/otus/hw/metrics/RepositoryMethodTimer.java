@@ -0,0 +1,58 @@
+package ru.otus.hw.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Замеряет время каждого вызова метода репозитория и запоминает, какой метод сейчас выполняется в потоке.
+ */
+public class RepositoryMethodTimer implements MethodInterceptor {
+
+    public static final String TIMER_NAME = "repository.calls";
+
+    private static final ThreadLocal<String> CURRENT_METHOD = new ThreadLocal<>();
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    private final Map<Method, Timer> timers = new ConcurrentHashMap<>();
+
+    public RepositoryMethodTimer(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * @return самый вложенный выполняющийся в этом потоке метод репозитория вида "JdbcBookRepository.findById"
+     * или null вне вызова репозитория
+     */
+    public static String currentMethod() {
+        return CURRENT_METHOD.get();
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        String repository = ClassUtils.getUserClass(invocation.getThis()).getSimpleName();
+        String method = invocation.getMethod().getName();
+        String outerMethod = CURRENT_METHOD.get();
+        CURRENT_METHOD.set(repository + "." + method);
+        long start = System.nanoTime();
+        try {
+            return invocation.proceed();
+        } finally {
+            timers.computeIfAbsent(invocation.getMethod(), key -> Timer.builder(TIMER_NAME)
+                            .tag("repository", repository)
+                            .tag("method", method)
+                            .register(meterRegistry.getObject()))
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            CURRENT_METHOD.set(outerMethod);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package ru.otus.hw.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.aop.framework.autoproxy.AbstractBeanFactoryAwareAdvisingPostProcessor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Добавляет {@link RepositoryMethodTimer} ко всем бинам с аннотацией {@link Repository}.
+ */
+public class RepositoryMetricsPostProcessor extends AbstractBeanFactoryAwareAdvisingPostProcessor {
+
+    public RepositoryMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        // Декораторы получают конкретные Jdbc-классы, поэтому прокси должен быть наследником класса
+        setProxyTargetClass(true);
+        this.advisor = new DefaultPointcutAdvisor(AnnotationMatchingPointcut.forClassAnnotation(Repository.class),
+                new RepositoryMethodTimer(meterRegistry));
+    }
+}
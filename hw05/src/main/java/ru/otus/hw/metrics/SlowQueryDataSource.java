@@ -0,0 +1,247 @@
+package ru.otus.hw.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Замеряет каждый запрос, выполненный через соединения этого DataSource, передаёт его в {@link SlowQueryLog}
+ * и записывает в таймер с тегом метода репозитория, выполнившего запрос.
+ * Время запроса с курсором считается до закрытия ResultSet, то есть вместе с чтением всех строк.
+ */
+public class SlowQueryDataSource extends DelegatingDataSource {
+
+    public static final String TIMER_NAME = "repository.statements";
+
+    // Тег запросов, выполненных не из репозитория, например скриптов инициализации схемы
+    public static final String NO_METHOD = "none";
+
+    private static final Set<String> EXECUTE_METHODS = Set.of("execute", "executeQuery", "executeUpdate",
+            "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    private final ObjectProvider<SlowQueryLog> slowQueryLog;
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public SlowQueryDataSource(DataSource targetDataSource, ObjectProvider<SlowQueryLog> slowQueryLog,
+                               ObjectProvider<MeterRegistry> meterRegistry) {
+        super(targetDataSource);
+        this.slowQueryLog = slowQueryLog;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return proxy(Connection.class, new ConnectionHandler(super.getConnection()));
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return proxy(Connection.class, new ConnectionHandler(super.getConnection(username, password)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private void record(String method, long elapsedNanos) {
+        timers.computeIfAbsent(method == null ? NO_METHOD : method, tag -> Timer.builder(TIMER_NAME)
+                        .tag("method", tag)
+                        .register(meterRegistry.getObject()))
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    private final class ConnectionHandler implements InvocationHandler {
+
+        private final Connection target;
+
+        private ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = SlowQueryDataSource.invoke(target, method, args);
+            if (result instanceof CallableStatement statement) {
+                return proxy(CallableStatement.class, new StatementHandler(statement, (String) args[0]));
+            }
+            if (result instanceof PreparedStatement statement) {
+                return proxy(PreparedStatement.class, new StatementHandler(statement, (String) args[0]));
+            }
+            if (result instanceof Statement statement) {
+                return proxy(Statement.class, new StatementHandler(statement, null));
+            }
+            return result;
+        }
+    }
+
+    private final class StatementHandler implements InvocationHandler {
+
+        private final Statement target;
+
+        private final String preparedSql;
+
+        private final List<Object> parameters = new ArrayList<>();
+
+        private int batchSize;
+
+        // Выполняющийся запрос: для запросов с курсором он завершается при закрытии ResultSet
+        private String executionSql;
+
+        private String executionMethod;
+
+        private int executionBatchSize;
+
+        private long executionStart;
+
+        private long rows;
+
+        private StatementHandler(Statement target, String preparedSql) {
+            this.target = target;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (EXECUTE_METHODS.contains(name)) {
+                return execute(method, args);
+            }
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index
+                    && preparedSql != null) {
+                setParameter(index, name.equals("setNull") ? null : args[1]);
+            } else if (name.equals("clearParameters")) {
+                parameters.clear();
+            } else if (name.equals("addBatch")) {
+                batchSize++;
+            } else if (name.equals("clearBatch")) {
+                batchSize = 0;
+            } else if (name.equals("close")) {
+                finish();
+            }
+            Object result = SlowQueryDataSource.invoke(target, method, args);
+            if (name.equals("getResultSet") && result instanceof ResultSet resultSet && executionSql != null) {
+                return proxy(ResultSet.class, new ResultSetHandler(resultSet, this));
+            }
+            return result;
+        }
+
+        private Object execute(Method method, Object[] args) throws Throwable {
+            finish();
+            executionSql = args != null && args.length > 0 && args[0] instanceof String sql ? sql : preparedSql;
+            executionMethod = RepositoryMethodTimer.currentMethod();
+            executionBatchSize = batchSize;
+            batchSize = 0;
+            rows = 0;
+            executionStart = System.nanoTime();
+            Object result;
+            try {
+                result = SlowQueryDataSource.invoke(target, method, args);
+            } catch (Throwable e) {
+                rows = -1;
+                finish();
+                throw e;
+            }
+            if (result instanceof ResultSet resultSet) {
+                return proxy(ResultSet.class, new ResultSetHandler(resultSet, this));
+            }
+            if (Boolean.TRUE.equals(result)) {
+                return result;
+            }
+            rows = updatedRows(result);
+            finish();
+            return result;
+        }
+
+        private long updatedRows(Object result) throws SQLException {
+            if (result instanceof Number count) {
+                return count.longValue();
+            }
+            long total = 0;
+            if (result instanceof int[] counts) {
+                for (int count : counts) {
+                    total += Math.max(count, 0);
+                }
+            } else if (result instanceof long[] counts) {
+                for (long count : counts) {
+                    total += Math.max(count, 0);
+                }
+            } else {
+                total = Math.max(target.getUpdateCount(), 0);
+            }
+            return total;
+        }
+
+        private void setParameter(int index, Object value) {
+            while (parameters.size() < index) {
+                parameters.add(null);
+            }
+            parameters.set(index - 1, value);
+        }
+
+        private void finish() {
+            if (executionSql == null) {
+                return;
+            }
+            long elapsed = System.nanoTime() - executionStart;
+            record(executionMethod, elapsed);
+            slowQueryLog.getObject().report(executionMethod, executionSql, parameters, executionBatchSize, rows,
+                    elapsed);
+            executionSql = null;
+        }
+    }
+
+    private static final class ResultSetHandler implements InvocationHandler {
+
+        private final ResultSet target;
+
+        private final StatementHandler statement;
+
+        private ResultSetHandler(ResultSet target, StatementHandler statement) {
+            this.target = target;
+            this.statement = statement;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = SlowQueryDataSource.invoke(target, method, args);
+            String name = method.getName();
+            if (name.equals("next") && Boolean.TRUE.equals(result)) {
+                statement.rows++;
+            } else if (name.equals("close")) {
+                statement.finish();
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package ru.otus.hw.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+
+/**
+ * Оборачивает DataSource приложения в {@link SlowQueryDataSource}. Маршрутизирующие и делегирующие источники
+ * не оборачиваются: запросы замеряются один раз на уровне пулов, которым они передают соединения.
+ */
+public class SlowQueryDataSourcePostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<SlowQueryLog> slowQueryLog;
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public SlowQueryDataSourcePostProcessor(ObjectProvider<SlowQueryLog> slowQueryLog,
+                                            ObjectProvider<MeterRegistry> meterRegistry) {
+        this.slowQueryLog = slowQueryLog;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof DelegatingDataSource)
+                && !(bean instanceof AbstractRoutingDataSource)) {
+            return new SlowQueryDataSource(dataSource, slowQueryLog, meterRegistry);
+        }
+        return bean;
+    }
+}
@@ -0,0 +1,66 @@
+package ru.otus.hw.metrics;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Пишет в лог запросы, которые выполнялись дольше порога. Порог можно менять во время работы.
+ * Выключенный журнал ничего не пишет, но запросы по-прежнему замеряются {@link SlowQueryDataSource}.
+ */
+@Slf4j
+public class SlowQueryLog {
+
+    private static final int MAX_LOGGED_PARAMETERS = 20;
+
+    private final boolean enabled;
+
+    private volatile long thresholdNanos;
+
+    public SlowQueryLog(boolean enabled, Duration threshold) {
+        this.enabled = enabled;
+        setThreshold(threshold);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Duration getThreshold() {
+        return Duration.ofNanos(thresholdNanos);
+    }
+
+    public void setThreshold(Duration threshold) {
+        if (threshold.isNegative()) {
+            throw new IllegalArgumentException("Slow query threshold must not be negative");
+        }
+        thresholdNanos = threshold.toNanos();
+    }
+
+    /**
+     * @param method     метод репозитория, выполнивший запрос, или null
+     * @param rows       число прочитанных или изменённых строк; -1, если запрос завершился ошибкой
+     * @param batchSize  число наборов параметров в пакете; 0, если запрос выполнялся не пакетом
+     */
+    void report(String method, String sql, List<Object> parameters, int batchSize, long rows, long elapsedNanos) {
+        if (!enabled || elapsedNanos < thresholdNanos || !log.isWarnEnabled()) {
+            return;
+        }
+        log.warn("Slow query: {} ms, rows: {}, method: {}, sql: {}, {}: {}",
+                "%.3f".formatted(elapsedNanos / 1_000_000.0),
+                rows < 0 ? "failed" : rows,
+                method == null ? "-" : method,
+                sql.strip().replaceAll("\\s+", " "),
+                batchSize > 0 ? "batch of " + batchSize + ", last parameters" : "parameters",
+                parametersToString(parameters));
+    }
+
+    private static String parametersToString(List<Object> parameters) {
+        if (parameters.size() <= MAX_LOGGED_PARAMETERS) {
+            return parameters.toString();
+        }
+        return parameters.subList(0, MAX_LOGGED_PARAMETERS).toString()
+                + " and " + (parameters.size() - MAX_LOGGED_PARAMETERS) + " more";
+    }
+}
@@ -11,4 +11,10 @@ public class Author {
     private long id;
 
     private String fullName;
+
+    private long version;
+
+    public Author(long id, String fullName) {
+        this(id, fullName, 0);
+    }
 }
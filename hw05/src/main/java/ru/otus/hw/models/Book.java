@@ -20,6 +20,13 @@ public class Book {
 
     private List<Genre> genres = new ArrayList<>();
 
+    // Номер версии строки для оптимистической блокировки, растёт на единицу при каждом изменении
+    private long version;
+
+    public Book(long id, String title, Author author, List<Genre> genres) {
+        this(id, title, author, genres, 0);
+    }
+
     public void addGenre(Genre genre) {
         genres.add(genre);
     }
@@ -11,4 +11,10 @@ public class Genre {
     private long id;
 
     private String name;
+
+    private long version;
+
+    public Genre(long id, String name) {
+        this(id, name, 0);
+    }
 }
@@ -1,16 +1,29 @@
 package ru.otus.hw.repositories;
 
+import ru.otus.hw.collections.LongSet;
 import ru.otus.hw.models.Author;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface AuthorRepository {
     List<Author> findAll();
 
     Optional<Author> findById(long id);
 
+    List<Author> findAllByIds(LongSet ids);
+
+    List<Author> findPage(long afterId, int limit);
+
+    void forEach(Consumer<Author> action);
+
     Author save(Author author);
 
+    List<Author> saveAll(Collection<Author> authors);
+
     void deleteById(long id);
+
+    void deleteAllByIds(LongSet ids);
 }
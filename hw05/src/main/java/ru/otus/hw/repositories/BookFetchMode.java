@@ -0,0 +1,15 @@
+package ru.otus.hw.repositories;
+
+/**
+ * Как читать книги вместе с жанрами.
+ */
+public enum BookFetchMode {
+    /**
+     * Строка на каждый жанр книги, книга и автор повторяются в каждой из них.
+     */
+    JOINED,
+    /**
+     * Ровно одна строка на книгу, id и названия жанров собираются в массивы через ARRAY_AGG.
+     */
+    AGGREGATED
+}
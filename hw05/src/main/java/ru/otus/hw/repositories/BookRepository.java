@@ -1,16 +1,40 @@
 package ru.otus.hw.repositories;
 
+import ru.otus.hw.collections.LongSet;
 import ru.otus.hw.models.Book;
+import ru.otus.hw.summaries.BookSummaries;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface BookRepository {
     Optional<Book> findById(long id);
 
     List<Book> findAll();
 
+    List<Book> findPage(long afterId, int limit);
+
+    List<Book> findAllByIds(LongSet ids);
+
+    List<Book> findAllByAuthorId(long authorId);
+
+    List<Book> findAllByGenreIds(LongSet genreIds, GenreMatch match);
+
+    BookSummaries findSummariesByIds(LongSet ids);
+
+    void forEach(Consumer<Book> action);
+
+    void forEachByAuthorId(long authorId, Consumer<Book> action);
+
+    void forEachByGenreIds(LongSet genreIds, GenreMatch match, Consumer<Book> action);
+
     Book save(Book book);
 
+    List<Book> saveAll(Collection<Book> books);
+
     void deleteById(long id);
+
+    void deleteAllByIds(LongSet ids);
 }
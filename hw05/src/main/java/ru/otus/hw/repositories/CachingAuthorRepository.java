@@ -0,0 +1,101 @@
+package ru.otus.hw.repositories;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+import ru.otus.hw.collections.LongSet;
+import ru.otus.hw.models.Author;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Основная реализация - IndexingAuthorRepository, этот декоратор стоит между ней и JdbcAuthorRepository
+@Repository
+@RequiredArgsConstructor
+public class CachingAuthorRepository implements AuthorRepository {
+
+    private final JdbcAuthorRepository delegate;
+
+    private final Cache<Long, Author> authorsCache;
+
+    @Override
+    public List<Author> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public Optional<Author> findById(long id) {
+        return Optional.ofNullable(authorsCache.get(id, key -> delegate.findById(key).orElse(null)))
+                .map(CachingAuthorRepository::copyOf);
+    }
+
+    @Override
+    public List<Author> findAllByIds(LongSet ids) {
+        Map<Long, Author> authorsById = authorsCache.getAll(ids.boxed(), this::loadAllByIds);
+        return ids.stream()
+                .mapToObj(authorsById::get)
+                .filter(Objects::nonNull)
+                .map(CachingAuthorRepository::copyOf)
+                .toList();
+    }
+
+    @Override
+    public List<Author> findPage(long afterId, int limit) {
+        return delegate.findPage(afterId, limit);
+    }
+
+    @Override
+    public void forEach(Consumer<Author> action) {
+        delegate.forEach(action);
+    }
+
+    @Override
+    public Author save(Author author) {
+        Author saved = delegate.save(author);
+        invalidate(List.of(saved.getId()));
+        return saved;
+    }
+
+    @Override
+    public List<Author> saveAll(Collection<Author> authors) {
+        List<Author> saved = delegate.saveAll(authors);
+        invalidate(saved.stream().map(Author::getId).toList());
+        return saved;
+    }
+
+    @Override
+    public void deleteById(long id) {
+        delegate.deleteById(id);
+        invalidate(List.of(id));
+    }
+
+    @Override
+    public void deleteAllByIds(LongSet ids) {
+        delegate.deleteAllByIds(ids);
+        invalidate(ids.boxed());
+    }
+
+    // Сразу - чтобы эта же транзакция читала свои изменения; после её завершения - чтобы убрать старую строку,
+    // перечитанную параллельным запросом до коммита, или незакоммиченную, перечитанную этой транзакцией до отката
+    private void invalidate(List<Long> ids) {
+        authorsCache.invalidateAll(ids);
+        TransactionCallbacks.afterCompletion(() -> authorsCache.invalidateAll(ids));
+    }
+
+    // Кеш отдаёт копии: изменение полученного объекта не должно менять закешированный
+    private static Author copyOf(Author author) {
+        return new Author(author.getId(), author.getFullName(), author.getVersion());
+    }
+
+    private Map<Long, Author> loadAllByIds(Set<? extends Long> ids) {
+        return delegate.findAllByIds(LongSet.copyOf(ids)).stream()
+                .collect(Collectors.toMap(Author::getId, Function.identity()));
+    }
+}
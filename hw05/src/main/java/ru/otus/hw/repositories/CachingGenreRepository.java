@@ -0,0 +1,102 @@
+package ru.otus.hw.repositories;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Repository;
+import ru.otus.hw.collections.LongSet;
+import ru.otus.hw.models.Genre;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Primary
+@Repository
+@RequiredArgsConstructor
+public class CachingGenreRepository implements GenreRepository {
+
+    private final JdbcGenreRepository delegate;
+
+    private final Cache<Long, Genre> genresCache;
+
+    @Override
+    public Optional<Genre> findById(long id) {
+        return Optional.ofNullable(genresCache.get(id, key -> delegate.findById(key).orElse(null)))
+                .map(CachingGenreRepository::copyOf);
+    }
+
+    @Override
+    public List<Genre> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public List<Genre> findAllByIds(LongSet ids) {
+        Map<Long, Genre> genresById = genresCache.getAll(ids.boxed(), this::loadAllByIds);
+        return ids.stream()
+                .mapToObj(genresById::get)
+                .filter(Objects::nonNull)
+                .map(CachingGenreRepository::copyOf)
+                .toList();
+    }
+
+    @Override
+    public List<Genre> findPage(long afterId, int limit) {
+        return delegate.findPage(afterId, limit);
+    }
+
+    @Override
+    public void forEach(Consumer<Genre> action) {
+        delegate.forEach(action);
+    }
+
+    @Override
+    public Genre save(Genre genre) {
+        Genre saved = delegate.save(genre);
+        invalidate(List.of(saved.getId()));
+        return saved;
+    }
+
+    @Override
+    public List<Genre> saveAll(Collection<Genre> genres) {
+        List<Genre> saved = delegate.saveAll(genres);
+        invalidate(saved.stream().map(Genre::getId).toList());
+        return saved;
+    }
+
+    @Override
+    public void deleteById(long id) {
+        delegate.deleteById(id);
+        invalidate(List.of(id));
+    }
+
+    @Override
+    public void deleteAllByIds(LongSet ids) {
+        delegate.deleteAllByIds(ids);
+        invalidate(ids.boxed());
+    }
+
+    // Сразу - чтобы эта же транзакция читала свои изменения; после её завершения - чтобы убрать старую строку,
+    // перечитанную параллельным запросом до коммита, или незакоммиченную, перечитанную этой транзакцией до отката
+    private void invalidate(List<Long> ids) {
+        genresCache.invalidateAll(ids);
+        TransactionCallbacks.afterCompletion(() -> genresCache.invalidateAll(ids));
+    }
+
+    // Кеш отдаёт копии: изменение полученного объекта не должно менять закешированный
+    private static Genre copyOf(Genre genre) {
+        return new Genre(genre.getId(), genre.getName(), genre.getVersion());
+    }
+
+    private Map<Long, Genre> loadAllByIds(Set<? extends Long> ids) {
+        return delegate.findAllByIds(LongSet.copyOf(ids)).stream()
+                .collect(Collectors.toMap(Genre::getId, Function.identity()));
+    }
+}
@@ -0,0 +1,9 @@
+package ru.otus.hw.repositories;
+
+/**
+ * Как сопоставлять жанры книги с запрошенными: хотя бы один из них или все сразу.
+ */
+public enum GenreMatch {
+    ANY,
+    ALL
+}
@@ -1,19 +1,29 @@
 package ru.otus.hw.repositories;
 
+import ru.otus.hw.collections.LongSet;
 import ru.otus.hw.models.Genre;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
-import java.util.Set;
+import java.util.function.Consumer;
 
 public interface GenreRepository {
     Optional<Genre> findById(long id);
 
     List<Genre> findAll();
 
-    List<Genre> findAllByIds(Set<Long> ids);
+    List<Genre> findAllByIds(LongSet ids);
+
+    List<Genre> findPage(long afterId, int limit);
+
+    void forEach(Consumer<Genre> action);
 
     Genre save(Genre genre);
 
+    List<Genre> saveAll(Collection<Genre> genres);
+
     void deleteById(long id);
+
+    void deleteAllByIds(LongSet ids);
 }
@@ -0,0 +1,86 @@
+package ru.otus.hw.repositories;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Repository;
+import ru.otus.hw.collections.LongSet;
+import ru.otus.hw.models.Author;
+import ru.otus.hw.search.BookSearchIndex;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Как и {@link IndexingBookRepository}, переносит изменения авторов в поисковый индекс книг только после коммита.
+ * У нового автора ещё нет книг, поэтому в индекс попадают только переименования и удаления.
+ */
+@Primary
+@Repository
+@RequiredArgsConstructor
+public class IndexingAuthorRepository implements AuthorRepository {
+
+    private final CachingAuthorRepository delegate;
+
+    private final BookSearchIndex bookSearchIndex;
+
+    @Override
+    public List<Author> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public Optional<Author> findById(long id) {
+        return delegate.findById(id);
+    }
+
+    @Override
+    public List<Author> findAllByIds(LongSet ids) {
+        return delegate.findAllByIds(ids);
+    }
+
+    @Override
+    public List<Author> findPage(long afterId, int limit) {
+        return delegate.findPage(afterId, limit);
+    }
+
+    @Override
+    public void forEach(Consumer<Author> action) {
+        delegate.forEach(action);
+    }
+
+    @Override
+    public Author save(Author author) {
+        boolean renamed = author.getId() != 0;
+        Author saved = delegate.save(author);
+        if (renamed) {
+            TransactionCallbacks.afterCommit(() -> bookSearchIndex.renameAuthor(saved.getId(), saved.getFullName()));
+        }
+        return saved;
+    }
+
+    @Override
+    public List<Author> saveAll(Collection<Author> authors) {
+        LongSet renamedIds = LongSet.of(authors.stream().mapToLong(Author::getId).filter(id -> id != 0).toArray());
+        List<Author> saved = delegate.saveAll(authors);
+        if (!renamedIds.isEmpty()) {
+            List<Author> renamed = saved.stream().filter(author -> renamedIds.contains(author.getId())).toList();
+            TransactionCallbacks.afterCommit(() -> renamed.forEach(
+                    author -> bookSearchIndex.renameAuthor(author.getId(), author.getFullName())));
+        }
+        return saved;
+    }
+
+    @Override
+    public void deleteById(long id) {
+        delegate.deleteById(id);
+        TransactionCallbacks.afterCommit(() -> bookSearchIndex.removeAuthor(id));
+    }
+
+    @Override
+    public void deleteAllByIds(LongSet ids) {
+        delegate.deleteAllByIds(ids);
+        TransactionCallbacks.afterCommit(() -> ids.forEach(bookSearchIndex::removeAuthor));
+    }
+}
@@ -0,0 +1,100 @@
+package ru.otus.hw.repositories;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Repository;
+import ru.otus.hw.collections.LongSet;
+import ru.otus.hw.models.Book;
+import ru.otus.hw.search.BookSearchIndex;
+import ru.otus.hw.summaries.BookSummaries;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+@Primary
+@Repository
+@RequiredArgsConstructor
+public class IndexingBookRepository implements BookRepository {
+
+    private final JdbcBookRepository delegate;
+
+    private final BookSearchIndex bookSearchIndex;
+
+    @Override
+    public Optional<Book> findById(long id) {
+        return delegate.findById(id);
+    }
+
+    @Override
+    public List<Book> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public List<Book> findPage(long afterId, int limit) {
+        return delegate.findPage(afterId, limit);
+    }
+
+    @Override
+    public List<Book> findAllByIds(LongSet ids) {
+        return delegate.findAllByIds(ids);
+    }
+
+    @Override
+    public List<Book> findAllByAuthorId(long authorId) {
+        return delegate.findAllByAuthorId(authorId);
+    }
+
+    @Override
+    public List<Book> findAllByGenreIds(LongSet genreIds, GenreMatch match) {
+        return delegate.findAllByGenreIds(genreIds, match);
+    }
+
+    @Override
+    public BookSummaries findSummariesByIds(LongSet ids) {
+        return delegate.findSummariesByIds(ids);
+    }
+
+    @Override
+    public void forEach(Consumer<Book> action) {
+        delegate.forEach(action);
+    }
+
+    @Override
+    public void forEachByAuthorId(long authorId, Consumer<Book> action) {
+        delegate.forEachByAuthorId(authorId, action);
+    }
+
+    @Override
+    public void forEachByGenreIds(LongSet genreIds, GenreMatch match, Consumer<Book> action) {
+        delegate.forEachByGenreIds(genreIds, match, action);
+    }
+
+    @Override
+    public Book save(Book book) {
+        Book saved = delegate.save(book);
+        TransactionCallbacks.afterCommit(() -> bookSearchIndex.index(List.of(saved)));
+        return saved;
+    }
+
+    @Override
+    public List<Book> saveAll(Collection<Book> books) {
+        List<Book> saved = delegate.saveAll(books);
+        TransactionCallbacks.afterCommit(() -> bookSearchIndex.index(saved));
+        return saved;
+    }
+
+    @Override
+    public void deleteById(long id) {
+        delegate.deleteById(id);
+        TransactionCallbacks.afterCommit(() -> bookSearchIndex.remove(LongSet.of(id)));
+    }
+
+    @Override
+    public void deleteAllByIds(LongSet ids) {
+        delegate.deleteAllByIds(ids);
+        TransactionCallbacks.afterCommit(() -> bookSearchIndex.remove(ids));
+    }
+}
@@ -2,20 +2,26 @@ package ru.otus.hw.repositories;
 
 import org.springframework.jdbc.core.JdbcOperations;
 import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations;
 import org.springframework.jdbc.core.namedparam.SqlParameterSource;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.stereotype.Repository;
-import ru.otus.hw.exceptions.EntityNotFoundException;
+import ru.otus.hw.collections.LongSet;
 import ru.otus.hw.models.Author;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 @Repository
 public class JdbcAuthorRepository implements AuthorRepository {
@@ -31,17 +37,40 @@ public class JdbcAuthorRepository implements AuthorRepository {
 
     @Override
     public List<Author> findAll() {
-        String sqlQuery = "SELECT id, full_name FROM authors";
+        String sqlQuery = "SELECT id, full_name, version FROM authors";
         return jdbc.query(sqlQuery, new AuthorRowMapper());
     }
 
     @Override
     public Optional<Author> findById(long id) {
-        String sqlQuery = "SELECT id, full_name FROM authors WHERE id = :id";
+        String sqlQuery = "SELECT id, full_name, version FROM authors WHERE id = :id";
         Author author = namedJdbc.query(sqlQuery, Map.of("id", id), new AuthorResultSetExtractor());
         return Optional.ofNullable(author);
     }
 
+    @Override
+    public List<Author> findAllByIds(LongSet ids) {
+        String sqlQuery = "SELECT id, full_name, version FROM authors WHERE id IN (:ids) ORDER BY id";
+        List<Author> authors = new ArrayList<>(ids.size());
+        for (List<Long> chunk : JdbcBatchOperations.idChunks(ids)) {
+            authors.addAll(namedJdbc.query(sqlQuery, Map.of("ids", chunk), new AuthorRowMapper()));
+        }
+        return authors;
+    }
+
+    @Override
+    public List<Author> findPage(long afterId, int limit) {
+        String sqlQuery = "SELECT id, full_name, version FROM authors WHERE id > :afterId ORDER BY id LIMIT :limit";
+        return namedJdbc.query(sqlQuery, Map.of("afterId", afterId, "limit", limit), new AuthorRowMapper());
+    }
+
+    @Override
+    public void forEach(Consumer<Author> action) {
+        String sqlQuery = "SELECT id, full_name, version FROM authors ORDER BY id";
+        jdbc.query(JdbcStreamingQueries.forwardOnly(sqlQuery),
+                (RowCallbackHandler) rs -> action.accept(mapAuthor(rs)));
+    }
+
     @Override
     public Author save(Author author) {
         if (author.getId() == 0) {
@@ -50,12 +79,26 @@ public class JdbcAuthorRepository implements AuthorRepository {
         return update(author);
     }
 
+    @Override
+    public List<Author> saveAll(Collection<Author> authors) {
+        Map<Boolean, List<Author>> authorsByNew = authors.stream()
+                .collect(Collectors.partitioningBy(author -> author.getId() == 0));
+        insertAll(authorsByNew.get(true));
+        updateAll(authorsByNew.get(false));
+        return List.copyOf(authors);
+    }
+
     @Override
     public void deleteById(long id) {
         String sqlQuery = "DELETE FROM authors WHERE id = :id";
         namedJdbc.update(sqlQuery, Map.of("id", id));
     }
 
+    @Override
+    public void deleteAllByIds(LongSet ids) {
+        JdbcBatchOperations.deleteByIds(namedJdbc, "authors", "id", ids);
+    }
+
     private Author insert(Author author) {
         var keyHolder = new GeneratedKeyHolder();
         String sqlQuery = "INSERT INTO authors (full_name) VALUES (:name)";
@@ -64,25 +107,65 @@ public class JdbcAuthorRepository implements AuthorRepository {
 
         //noinspection DataFlowIssue
         author.setId(keyHolder.getKey().longValue());
+        author.setVersion(0);
         return author;
     }
 
     private Author update(Author author) {
         String sqlQuery = """
-                UPDATE authors SET full_name = :name
-                WHERE id = :id
+                UPDATE authors SET full_name = :name, version = version + 1
+                WHERE id = :id AND version = :version
                 """;
         int updatedRows = namedJdbc.update(sqlQuery,
-                Map.of("id", author.getId(), "name", author.getFullName()));
+                Map.of("id", author.getId(), "name", author.getFullName(), "version", author.getVersion()));
         if (updatedRows == 0)
-            throw new EntityNotFoundException("Author with id " + author.getId() + " not found");
+            throw JdbcOptimisticLocking.updateFailure(namedJdbc, "authors", "Author", author.getId(),
+                    author.getVersion());
+        author.setVersion(author.getVersion() + 1);
         return author;
     }
 
+    private void insertAll(List<Author> authors) {
+        if (authors.isEmpty()) {
+            return;
+        }
+        List<Long> ids = JdbcBatchOperations.insertReturningIds(namedJdbc, "authors", List.of("full_name"),
+                authors, author -> Collections.singletonList(author.getFullName()));
+        for (int i = 0; i < authors.size(); i++) {
+            authors.get(i).setId(ids.get(i));
+            authors.get(i).setVersion(0);
+        }
+    }
+
+    private void updateAll(List<Author> authors) {
+        if (authors.isEmpty()) {
+            return;
+        }
+        String sqlQuery = """
+                UPDATE authors SET full_name = :name, version = version + 1
+                WHERE id = :id AND version = :version
+                """;
+        SqlParameterSource[] params = authors.stream()
+                .map(author -> new MapSqlParameterSource("id", author.getId())
+                        .addValue("name", author.getFullName())
+                        .addValue("version", author.getVersion()))
+                .toArray(SqlParameterSource[]::new);
+        int[] updatedRows = namedJdbc.batchUpdate(sqlQuery, params);
+        for (int i = 0; i < updatedRows.length; i++) {
+            Author author = authors.get(i);
+            if (updatedRows[i] == 0) {
+                throw JdbcOptimisticLocking.updateFailure(namedJdbc, "authors", "Author", author.getId(),
+                        author.getVersion());
+            }
+        }
+        authors.forEach(author -> author.setVersion(author.getVersion() + 1));
+    }
+
     private static Author mapAuthor(ResultSet rs) throws SQLException {
         Author author = new Author();
         author.setId(rs.getLong("id"));
         author.setFullName(rs.getString("full_name"));
+        author.setVersion(rs.getLong("version"));
         return author;
     }
 
@@ -0,0 +1,116 @@
+package ru.otus.hw.repositories;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import ru.otus.hw.collections.LongSet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+final class JdbcBatchOperations {
+
+    static final int ROWS_PER_INSERT = 100;
+
+    static final int IDS_PER_QUERY = 1024;
+
+    private static final String[] ID_COLUMN = {"id"};
+
+    private JdbcBatchOperations() {
+    }
+
+    // Строки вставляются по ROWS_PER_INSERT в одном INSERT ... VALUES (...), (...);
+    // полные куски имеют одинаковый текст и уходят одним JDBC-батчем, ключи возвращаются в порядке строк
+    static <T> List<Long> insertReturningIds(NamedParameterJdbcOperations namedJdbc, String table,
+                                             List<String> columns, List<T> rows,
+                                             Function<T, List<?>> valuesExtractor) {
+        List<Long> ids = new ArrayList<>(rows.size());
+        int fullChunksRowsCount = rows.size() - rows.size() % ROWS_PER_INSERT;
+        if (fullChunksRowsCount > 0) {
+            SqlParameterSource[] params = IntStream.iterate(0, from -> from < fullChunksRowsCount,
+                            from -> from + ROWS_PER_INSERT)
+                    .mapToObj(from -> toParams(rows.subList(from, from + ROWS_PER_INSERT), valuesExtractor))
+                    .toArray(SqlParameterSource[]::new);
+            var keyHolder = new GeneratedKeyHolder();
+            namedJdbc.batchUpdate(insertSql(table, columns, ROWS_PER_INSERT), params, keyHolder, ID_COLUMN);
+            collectIds(keyHolder, ids);
+        }
+        if (fullChunksRowsCount < rows.size()) {
+            var tail = rows.subList(fullChunksRowsCount, rows.size());
+            var keyHolder = new GeneratedKeyHolder();
+            namedJdbc.update(insertSql(table, columns, tail.size()), toParams(tail, valuesExtractor),
+                    keyHolder, ID_COLUMN);
+            collectIds(keyHolder, ids);
+        }
+        return ids;
+    }
+
+    static int deleteByIds(NamedParameterJdbcOperations namedJdbc, String table, String idColumn,
+                           LongSet ids) {
+        String sqlQuery = "DELETE FROM " + table + " WHERE " + idColumn + " IN (:ids)";
+        int deletedRows = 0;
+        for (List<Long> chunk : idChunks(ids)) {
+            deletedRows += namedJdbc.update(sqlQuery, Map.of("ids", chunk));
+        }
+        return deletedRows;
+    }
+
+    // Текст IN (:ids) зависит от числа id, поэтому набор режется на куски по IDS_PER_QUERY,
+    // а хвост добивается повтором последнего id до степени двойки: на любой набор приходится не больше
+    // log2(IDS_PER_QUERY) + 1 разных текстов запроса, и разобранные запросы и их планы переиспользуются.
+    // Куски идут по возрастанию id, так что результаты запросов с ORDER BY id можно просто склеивать
+    static List<List<Long>> idChunks(LongSet ids) {
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += IDS_PER_QUERY) {
+            chunks.add(paddedChunk(ids, from, Math.min(from + IDS_PER_QUERY, ids.size())));
+        }
+        return chunks;
+    }
+
+    private static List<Long> paddedChunk(LongSet ids, int from, int to) {
+        int size = to - from;
+        int paddedSize = Integer.bitCount(size) == 1 ? size : Integer.highestOneBit(size) << 1;
+        Long[] chunk = new Long[paddedSize];
+        for (int i = 0; i < size; i++) {
+            chunk[i] = ids.get(from + i);
+        }
+        Arrays.fill(chunk, size, paddedSize, chunk[size - 1]);
+        return Arrays.asList(chunk);
+    }
+
+    private static String insertSql(String table, List<String> columns, int rowsCount) {
+        String values = IntStream.range(0, rowsCount)
+                .mapToObj(row -> IntStream.range(0, columns.size())
+                        .mapToObj(column -> ":" + columnParam(column, row))
+                        .collect(Collectors.joining(", ", "(", ")")))
+                .collect(Collectors.joining(", "));
+        return "INSERT INTO " + table + " (" + String.join(", ", columns) + ") VALUES " + values;
+    }
+
+    private static <T> SqlParameterSource toParams(List<T> rows, Function<T, List<?>> valuesExtractor) {
+        var params = new MapSqlParameterSource();
+        for (int row = 0; row < rows.size(); row++) {
+            List<?> values = valuesExtractor.apply(rows.get(row));
+            for (int column = 0; column < values.size(); column++) {
+                params.addValue(columnParam(column, row), values.get(column));
+            }
+        }
+        return params;
+    }
+
+    private static String columnParam(int column, int row) {
+        return "c" + column + "_" + row;
+    }
+
+    private static void collectIds(GeneratedKeyHolder keyHolder, List<Long> ids) {
+        for (Map<String, Object> keys : keyHolder.getKeyList()) {
+            ids.add(((Number) keys.values().iterator().next()).longValue());
+        }
+    }
+}
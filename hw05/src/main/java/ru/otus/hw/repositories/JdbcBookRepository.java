@@ -1,58 +1,166 @@
 package ru.otus.hw.repositories;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.dao.DataAccessException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.jdbc.core.JdbcOperations;
-import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations;
 import org.springframework.jdbc.core.namedparam.SqlParameterSource;
-import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.stereotype.Repository;
+import ru.otus.hw.collections.LongList;
+import ru.otus.hw.collections.LongSet;
 import ru.otus.hw.exceptions.EntityNotFoundException;
 import ru.otus.hw.models.Author;
 import ru.otus.hw.models.Book;
 import ru.otus.hw.models.Genre;
+import ru.otus.hw.summaries.BookSummaries;
+import ru.otus.hw.summaries.BookSummary;
+import ru.otus.hw.summaries.GenreDictionary;
 
+import java.sql.Array;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Repository
-@RequiredArgsConstructor
 public class JdbcBookRepository implements BookRepository {
 
     private final GenreRepository genreRepository;
     private final NamedParameterJdbcOperations namedJdbc;
     private final JdbcOperations jdbc;
+    private final BookFetchMode fetchMode;
+
+    private final String findByIdQuery;
+    private final String findPageQuery;
+    private final String findAllByIdsQuery;
+    private final String findAllByAuthorIdQuery;
+    private final String findAllByGenreIdsQuery;
+    private final String forEachQuery;
+
+    public JdbcBookRepository(GenreRepository genreRepository, NamedParameterJdbcOperations namedJdbc,
+                              JdbcOperations jdbc) {
+        this(genreRepository, namedJdbc, jdbc, BookFetchMode.JOINED);
+    }
+
+    @Autowired
+    public JdbcBookRepository(GenreRepository genreRepository, NamedParameterJdbcOperations namedJdbc,
+                              JdbcOperations jdbc,
+                              @Value("${app.books.fetch-mode:joined}") BookFetchMode fetchMode) {
+        this.genreRepository = genreRepository;
+        this.namedJdbc = namedJdbc;
+        this.jdbc = jdbc;
+        this.fetchMode = fetchMode;
+        this.findByIdQuery = booksQuery("books", "WHERE books.id = :id");
+        this.findPageQuery = booksQuery("""
+                (SELECT id, title, author_id, version FROM books WHERE id > :afterId ORDER BY id LIMIT :limit)""",
+                "");
+        this.findAllByIdsQuery = booksQuery("books", "WHERE books.id IN (:ids)");
+        this.findAllByAuthorIdQuery = booksQuery("books", "WHERE books.author_id = :authorId");
+        // Книги отбираются по индексу books_genres(genre_id), но загружаются со всеми своими жанрами
+        this.findAllByGenreIdsQuery = booksQuery("books", """
+                WHERE books.id IN (
+                    SELECT book_id FROM books_genres WHERE genre_id IN (:genreIds)
+                    GROUP BY book_id HAVING COUNT(*) >= :matchedCount
+                )""");
+        this.forEachQuery = booksQuery("books", "");
+    }
 
     @Override
     public Optional<Book> findById(long id) {
-        String bookQuery = """
-                SELECT books.id AS book_id, books.title, books.author_id, authors.full_name AS author_name,
-                       genres.id AS genre_id, genres.name AS genre_name FROM books
-                LEFT JOIN authors ON books.author_id = authors.id
-                LEFT JOIN books_genres ON books.id = books_genres.book_id
-                JOIN genres ON genres.id = books_genres.genre_id
-                WHERE books.id = :id
-                """;
-        Book book = namedJdbc.query(bookQuery, Map.of("id", id),
-                new BookResultSetExtractor());
-        if (book == null) return Optional.empty();
-        return Optional.of(book);
+        List<Book> books = new ArrayList<>(1);
+        queryBooks(findByIdQuery, Map.of("id", id), books::add);
+        return books.stream().findFirst();
     }
 
     @Override
     public List<Book> findAll() {
-        var genres = genreRepository.findAll();
         var books = getAllBooksWithoutGenres();
         var relations = getAllGenreRelations();
+        var genres = findRelatedGenres(relations);
         mergeBooksInfo(books, genres, relations);
         return books;
     }
 
+    @Override
+    public List<Book> findPage(long afterId, int limit) {
+        List<Book> books = new ArrayList<>();
+        queryBooks(findPageQuery, Map.of("afterId", afterId, "limit", limit), books::add);
+        return books;
+    }
+
+    @Override
+    public List<Book> findAllByIds(LongSet ids) {
+        List<Book> books = new ArrayList<>(ids.size());
+        var flyweights = new QueryFlyweights();
+        for (List<Long> chunk : JdbcBatchOperations.idChunks(ids)) {
+            queryBooks(findAllByIdsQuery, Map.of("ids", chunk), flyweights, books::add);
+        }
+        return books;
+    }
+
+    @Override
+    public List<Book> findAllByAuthorId(long authorId) {
+        List<Book> books = new ArrayList<>();
+        forEachByAuthorId(authorId, books::add);
+        return books;
+    }
+
+    @Override
+    public List<Book> findAllByGenreIds(LongSet genreIds, GenreMatch match) {
+        List<Book> books = new ArrayList<>();
+        forEachByGenreIds(genreIds, match, books::add);
+        return books;
+    }
+
+    // Части набора id идут по возрастанию, поэтому книги и связи всех частей упорядочены по id книги
+    @Override
+    public BookSummaries findSummariesByIds(LongSet ids) {
+        String relationsQuery = """
+                SELECT book_id, genre_id FROM books_genres WHERE book_id IN (:ids) ORDER BY book_id, genre_id
+                """;
+        String booksQuery = bookSummariesQuery("WHERE books.id IN (:ids)");
+        List<List<Long>> chunks = JdbcBatchOperations.idChunks(ids);
+        var relations = new GenreRelations(new LongList(), new LongList());
+        for (List<Long> chunk : chunks) {
+            namedJdbc.query(relationsQuery, Map.of("ids", chunk),
+                    (RowCallbackHandler) rs -> addRelation(relations, rs));
+        }
+        var rowMapper = new BookSummaryRowMapper(new QueryFlyweights(), relations);
+        List<BookSummary> books = new ArrayList<>(ids.size());
+        for (List<Long> chunk : chunks) {
+            books.addAll(namedJdbc.query(booksQuery, Map.of("ids", chunk), rowMapper));
+        }
+        return new BookSummaries(books, GenreDictionary.of(findRelatedGenres(relations)));
+    }
+
+    @Override
+    public void forEach(Consumer<Book> action) {
+        BooksCallbackHandler callbackHandler = booksCallbackHandler(new QueryFlyweights(), action);
+        jdbc.query(JdbcStreamingQueries.forwardOnly(forEachQuery), callbackHandler);
+        callbackHandler.complete();
+    }
+
+    @Override
+    public void forEachByAuthorId(long authorId, Consumer<Book> action) {
+        queryBooks(findAllByAuthorIdQuery, Map.of("authorId", authorId), action);
+    }
+
+    @Override
+    public void forEachByGenreIds(LongSet genreIds, GenreMatch match, Consumer<Book> action) {
+        if (genreIds.isEmpty()) {
+            return;
+        }
+        int matchedCount = match == GenreMatch.ALL ? genreIds.size() : 1;
+        queryBooks(findAllByGenreIdsQuery, Map.of("genreIds", genreIds.boxed(), "matchedCount", matchedCount),
+                action);
+    }
+
     @Override
     public Book save(Book book) {
         if (book.getId() == 0) {
@@ -61,103 +169,383 @@ public class JdbcBookRepository implements BookRepository {
         return update(book);
     }
 
+    @Override
+    public List<Book> saveAll(Collection<Book> books) {
+        if (books.stream().anyMatch(book -> book.getAuthor() == null)) {
+            throw new EntityNotFoundException("Author is not specified");
+        }
+        Map<Boolean, List<Book>> booksByNew = books.stream()
+                .collect(Collectors.partitioningBy(book -> book.getId() == 0));
+        try {
+            insertAll(booksByNew.get(true));
+            updateAll(booksByNew.get(false));
+        } catch (DataIntegrityViolationException e) {
+            throw new EntityNotFoundException("Author or genres of saved books not found");
+        }
+        return List.copyOf(books);
+    }
+
     @Override
     public void deleteById(long id) {
         String sqlQuery = "DELETE FROM books WHERE id = :id";
         namedJdbc.update(sqlQuery, Map.of("id", id));
     }
 
+    @Override
+    public void deleteAllByIds(LongSet ids) {
+        JdbcBatchOperations.deleteByIds(namedJdbc, "books", "id", ids);
+    }
+
+    // booksSource - таблица books или подзапрос к ней, результат упорядочен по books.id в обоих режимах
+    private String booksQuery(String booksSource, String condition) {
+        return switch (fetchMode) {
+            case JOINED -> """
+                    SELECT books.id AS book_id, books.title, books.author_id, authors.full_name AS author_name,
+                           genres.id AS genre_id, genres.name AS genre_name, books.version
+                    FROM %s books
+                    LEFT JOIN authors ON books.author_id = authors.id
+                    LEFT JOIN books_genres ON books.id = books_genres.book_id
+                    LEFT JOIN genres ON genres.id = books_genres.genre_id
+                    %s
+                    ORDER BY books.id, genres.id
+                    """.formatted(booksSource, condition);
+            // Группировка по первичному ключу книг идёт потоком ("group sorted"), автор у книги один,
+            // поэтому ANY_VALUE; FILTER оставляет NULL вместо массива из NULL у книги без жанров
+            case AGGREGATED -> """
+                    SELECT books.id AS book_id, books.title, books.author_id,
+                           ANY_VALUE(authors.full_name) AS author_name, books.version,
+                           ARRAY_AGG(genres.id ORDER BY genres.id) FILTER (WHERE genres.id IS NOT NULL) AS genre_ids,
+                           ARRAY_AGG(genres.name ORDER BY genres.id) FILTER (WHERE genres.id IS NOT NULL) AS genre_names
+                    FROM %s books
+                    LEFT JOIN authors ON books.author_id = authors.id
+                    LEFT JOIN books_genres ON books.id = books_genres.book_id
+                    LEFT JOIN genres ON genres.id = books_genres.genre_id
+                    %s
+                    GROUP BY books.id
+                    ORDER BY books.id
+                    """.formatted(booksSource, condition);
+        };
+    }
+
+    private void queryBooks(String sqlQuery, Map<String, ?> params, Consumer<Book> action) {
+        queryBooks(sqlQuery, params, new QueryFlyweights(), action);
+    }
+
+    private void queryBooks(String sqlQuery, Map<String, ?> params, QueryFlyweights flyweights,
+                            Consumer<Book> action) {
+        BooksCallbackHandler callbackHandler = booksCallbackHandler(flyweights, action);
+        namedJdbc.query(sqlQuery, params, callbackHandler);
+        callbackHandler.complete();
+    }
+
+    private BooksCallbackHandler booksCallbackHandler(QueryFlyweights flyweights, Consumer<Book> action) {
+        return switch (fetchMode) {
+            case JOINED -> new BookAggregatingCallbackHandler(flyweights, action);
+            case AGGREGATED -> new AggregatedBookCallbackHandler(flyweights, action);
+        };
+    }
+
     private List<Book> getAllBooksWithoutGenres() {
         String sqlQuery = """
-                SELECT books.id AS book_id, books.title, books.author_id, authors.full_name AS author_name FROM books
+                SELECT books.id AS book_id, books.title, books.author_id, authors.full_name AS author_name,
+                       books.version FROM books
                 LEFT JOIN authors ON books.author_id = authors.id
+                ORDER BY books.id
                 """;
-        return jdbc.query(sqlQuery, new BookRowMapper());
+        return jdbc.query(sqlQuery, new BookRowMapper(new QueryFlyweights()));
+    }
+
+    // Связи читаются в порядке первичного ключа (book_id, genre_id) в два примитивных списка
+    private GenreRelations getAllGenreRelations() {
+        String sqlQuery = "SELECT book_id, genre_id FROM books_genres ORDER BY book_id, genre_id";
+        var relations = new GenreRelations(new LongList(), new LongList());
+        jdbc.query(sqlQuery, (RowCallbackHandler) rs -> addRelation(relations, rs));
+        return relations;
+    }
+
+    private static void addRelation(GenreRelations relations, ResultSet rs) throws SQLException {
+        relations.bookIds().add(rs.getLong("book_id"));
+        relations.genreIds().add(rs.getLong("genre_id"));
     }
 
-    private List<BookGenreRelation> getAllGenreRelations() {
-        String sqlQuery = "SELECT book_id, genre_id FROM books_genres";
-        return jdbc.query(sqlQuery, new BookGenreRelationRowMapper());
+    private static String bookSummariesQuery(String condition) {
+        return """
+                SELECT books.id AS book_id, books.title, books.author_id, authors.full_name AS author_name,
+                       books.version
+                FROM books
+                LEFT JOIN authors ON books.author_id = authors.id
+                %s
+                ORDER BY books.id
+                """.formatted(condition);
+    }
+
+    private List<Genre> findRelatedGenres(GenreRelations relations) {
+        LongSet genreIds = relations.genreIds().toSet();
+        if (genreIds.isEmpty()) {
+            return List.of();
+        }
+        return genreRepository.findAllByIds(genreIds);
     }
 
-    private void mergeBooksInfo(List<Book> booksWithoutGenres, List<Genre> genres,
-                                List<BookGenreRelation> relations) {
+    // Книги и связи упорядочены по id книги и сливаются за один проход. Жанры приходят упорядоченными по id,
+    // поэтому жанр связи находится бинарным поиском в наборе их id, без карты с упакованными ключами
+    private void mergeBooksInfo(List<Book> booksWithoutGenres, List<Genre> genres, GenreRelations relations) {
+        LongSet genreIds = LongSet.of(genres.stream().mapToLong(Genre::getId).toArray());
+        LongList relationBookIds = relations.bookIds();
+        int relation = 0;
         for (Book book : booksWithoutGenres) {
-            relations.stream()
-                    .filter(rel -> book.getId() == rel.bookId)
-                    .flatMap(rel ->
-                            genres.stream()
-                                    .filter(genre -> genre.getId() == rel.genreId))
-                    .forEach(book::addGenre);
+            while (relation < relationBookIds.size() && relationBookIds.get(relation) < book.getId()) {
+                relation++;
+            }
+            for (; relation < relationBookIds.size() && relationBookIds.get(relation) == book.getId(); relation++) {
+                int genreIndex = genreIds.indexOf(relations.genreIds().get(relation));
+                if (genreIndex >= 0) {
+                    book.addGenre(genres.get(genreIndex));
+                }
+            }
         }
     }
 
+    // Существование автора и жанров проверяется самой записью (FK и INSERT ... SELECT),
+    // имена для возвращаемой книги читаются из той же команды через FINAL TABLE
     private Book insert(Book book) {
         if (book.getAuthor() == null) {
             throw new EntityNotFoundException("Author is not specified");
         }
-        var keyHolder = new GeneratedKeyHolder();
-        String sqlQuery = "INSERT INTO books (title, author_id) VALUES (:title, :authorId)";
+        String sqlQuery = """
+                SELECT books.id, authors.full_name AS author_name
+                FROM FINAL TABLE (INSERT INTO books (title, author_id) VALUES (:title, :authorId)) books
+                JOIN authors ON books.author_id = authors.id
+                """;
         long authorId = book.getAuthor().getId();
         SqlParameterSource params = new MapSqlParameterSource("title", book.getTitle())
                 .addValue("authorId", authorId);
-        namedJdbc.update(sqlQuery, params, keyHolder);
-
-        //noinspection DataFlowIssue
-        book.setId(keyHolder.getKey().longValue());
-        batchInsertGenresRelationsFor(book);
+        try {
+            namedJdbc.query(sqlQuery, params, (RowCallbackHandler) rs -> {
+                book.setId(rs.getLong("id"));
+                book.setVersion(0);
+                book.setAuthor(new Author(authorId, rs.getString("author_name")));
+            });
+        } catch (DataIntegrityViolationException e) {
+            throw new EntityNotFoundException("Author with id %d not found".formatted(authorId));
+        }
+        book.setGenres(insertGenresRelationsFor(book));
         return book;
     }
 
+    private List<Genre> insertGenresRelationsFor(Book book) {
+        LongSet genreIds = getGenreIds(book);
+        if (genreIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        String sqlQuery = """
+                SELECT genres.id AS genre_id, genres.name AS genre_name
+                FROM FINAL TABLE (
+                    INSERT INTO books_genres (book_id, genre_id)
+                    SELECT :bookId, id FROM genres WHERE id IN (:genreIds)
+                ) books_genres
+                JOIN genres ON genres.id = books_genres.genre_id
+                ORDER BY genres.id
+                """;
+        List<Genre> genres = namedJdbc.query(sqlQuery, Map.of("bookId", book.getId(), "genreIds", genreIds.boxed()),
+                (rs, rowNum) -> mapGenre(rs));
+        checkAllGenresFound(genreIds, genres);
+        return genres;
+    }
+
+    private void insertAll(List<Book> books) {
+        if (books.isEmpty()) {
+            return;
+        }
+        List<Long> ids = JdbcBatchOperations.insertReturningIds(namedJdbc, "books", List.of("title", "author_id"),
+                books, book -> Arrays.asList(book.getTitle(), book.getAuthor().getId()));
+        for (int i = 0; i < books.size(); i++) {
+            books.get(i).setId(ids.get(i));
+            books.get(i).setVersion(0);
+        }
+        batchInsertGenresRelationsFor(books);
+    }
+
     private Book update(Book book) {
         if (book.getAuthor() == null) {
             throw new EntityNotFoundException("Author is not specified");
         }
         String sqlQuery = """
-                UPDATE books b SET
-                b.title = :title,
-                b.author_id = :authorId
-                WHERE b.id = :id
+                SELECT books.version, authors.full_name AS author_name
+                FROM FINAL TABLE (
+                    UPDATE books SET title = :title, author_id = :authorId, version = version + 1
+                    WHERE id = :id AND version = :version
+                ) books
+                JOIN authors ON books.author_id = authors.id
                 """;
         long authorId = book.getAuthor().getId();
-        int updatedRows = namedJdbc.update(sqlQuery,
-                Map.of( "id", book.getId(), "title", book.getTitle(), "authorId", authorId));
-        if (updatedRows == 0) {
-            throw new EntityNotFoundException("Book with id " + book.getId() + " not found");
+        SqlParameterSource params = new MapSqlParameterSource("id", book.getId())
+                .addValue("title", book.getTitle())
+                .addValue("authorId", authorId)
+                .addValue("version", book.getVersion());
+        List<UpdatedBookRow> updatedRows;
+        try {
+            updatedRows = namedJdbc.query(sqlQuery, params, (rs, rowNum) ->
+                    new UpdatedBookRow(rs.getLong("version"), rs.getString("author_name")));
+        } catch (DataIntegrityViolationException e) {
+            throw new EntityNotFoundException("Author with id %d not found".formatted(authorId));
         }
-        removeGenresRelationsFor(book);
-        batchInsertGenresRelationsFor(book);
-
+        if (updatedRows.isEmpty()) {
+            throw JdbcOptimisticLocking.updateFailure(namedJdbc, "books", "Book", book.getId(), book.getVersion());
+        }
+        book.setVersion(updatedRows.get(0).version());
+        book.setAuthor(new Author(authorId, updatedRows.get(0).authorName()));
+        if (book.getGenres().isEmpty()) {
+            updateGenresRelationsFor(List.of(book));
+            return book;
+        }
+        book.setGenres(syncGenresRelationsFor(book));
         return book;
     }
 
-    private void batchInsertGenresRelationsFor(Book book) {
-        List<BookGenreRelation> relations = book.getGenres().stream()
-                .map(genre -> new BookGenreRelation(book.getId(), genre.getId()))
+    // Одним запросом получает запрошенные жанры (с признаком существующей связи) и лишние связи книги
+    private List<Genre> syncGenresRelationsFor(Book book) {
+        LongSet genreIds = getGenreIds(book);
+        String sqlQuery = """
+                SELECT genres.id AS genre_id, genres.name AS genre_name, books_genres.genre_id AS linked_genre_id
+                FROM genres
+                LEFT JOIN books_genres ON books_genres.genre_id = genres.id AND books_genres.book_id = :bookId
+                WHERE genres.id IN (:genreIds)
+                UNION ALL
+                SELECT NULL, NULL, genre_id FROM books_genres
+                WHERE book_id = :bookId AND genre_id NOT IN (:genreIds)
+                ORDER BY genre_id
+                """;
+        List<Genre> genres = new ArrayList<>();
+        List<BookGenreRelation> relationsToInsert = new ArrayList<>();
+        List<BookGenreRelation> relationsToDelete = new ArrayList<>();
+        var params = Map.of("bookId", book.getId(), "genreIds", genreIds.boxed());
+        namedJdbc.query(sqlQuery, params, (RowCallbackHandler) rs -> {
+            long linkedGenreId = rs.getLong("linked_genre_id");
+            Genre genre = mapGenre(rs);
+            if (genre.getId() == 0) {
+                relationsToDelete.add(new BookGenreRelation(book.getId(), linkedGenreId));
+                return;
+            }
+            genres.add(genre);
+            if (linkedGenreId == 0) {
+                relationsToInsert.add(new BookGenreRelation(book.getId(), genre.getId()));
+            }
+        });
+        checkAllGenresFound(genreIds, genres);
+        batchDeleteGenresRelations(relationsToDelete);
+        batchInsertGenresRelations(relationsToInsert);
+        return genres;
+    }
+
+    private static LongSet getGenreIds(Book book) {
+        return LongSet.of(book.getGenres().stream().mapToLong(Genre::getId).toArray());
+    }
+
+    private static void checkAllGenresFound(LongSet genreIds, List<Genre> genres) {
+        if (genres.size() != genreIds.size()) {
+            throw new EntityNotFoundException("One or all genres with ids %s not found".formatted(genreIds));
+        }
+    }
+
+    private void updateAll(List<Book> books) {
+        if (books.isEmpty()) {
+            return;
+        }
+        String sqlQuery = """
+                UPDATE books SET title = :title, author_id = :authorId, version = version + 1
+                WHERE id = :id AND version = :version
+                """;
+        SqlParameterSource[] params = books.stream()
+                .map(book -> new MapSqlParameterSource("id", book.getId())
+                        .addValue("title", book.getTitle())
+                        .addValue("authorId", book.getAuthor().getId())
+                        .addValue("version", book.getVersion()))
+                .toArray(SqlParameterSource[]::new);
+        int[] updatedRows = namedJdbc.batchUpdate(sqlQuery, params);
+        for (int i = 0; i < updatedRows.length; i++) {
+            Book book = books.get(i);
+            if (updatedRows[i] == 0) {
+                throw JdbcOptimisticLocking.updateFailure(namedJdbc, "books", "Book", book.getId(),
+                        book.getVersion());
+            }
+        }
+        books.forEach(book -> book.setVersion(book.getVersion() + 1));
+        updateGenresRelationsFor(books);
+    }
+
+    private void batchInsertGenresRelationsFor(List<Book> books) {
+        List<BookGenreRelation> relations = books.stream()
+                .flatMap(book -> book.getGenres().stream()
+                        .map(genre -> new BookGenreRelation(book.getId(), genre.getId())))
                 .toList();
+        batchInsertGenresRelations(relations);
+    }
+
+    // Пишутся только изменившиеся пары (book_id, genre_id), при неизменном наборе жанров запись не выполняется
+    private void updateGenresRelationsFor(List<Book> books) {
+        Map<Long, LongList> storedGenreIdsByBookId = findGenreIdsByBookIds(
+                LongSet.of(books.stream().mapToLong(Book::getId).toArray()));
+        List<BookGenreRelation> relationsToInsert = new ArrayList<>();
+        List<BookGenreRelation> relationsToDelete = new ArrayList<>();
+        for (Book book : books) {
+            LongList storedGenreIdsList = storedGenreIdsByBookId.get(book.getId());
+            LongSet storedGenreIds = storedGenreIdsList != null ? storedGenreIdsList.toSet() : LongSet.of();
+            LongSet genreIds = getGenreIds(book);
+            genreIds.stream()
+                    .filter(genreId -> !storedGenreIds.contains(genreId))
+                    .forEach(genreId -> relationsToInsert.add(new BookGenreRelation(book.getId(), genreId)));
+            storedGenreIds.stream()
+                    .filter(genreId -> !genreIds.contains(genreId))
+                    .forEach(genreId -> relationsToDelete.add(new BookGenreRelation(book.getId(), genreId)));
+        }
+        batchDeleteGenresRelations(relationsToDelete);
+        batchInsertGenresRelations(relationsToInsert);
+    }
+
+    private Map<Long, LongList> findGenreIdsByBookIds(LongSet bookIds) {
+        String sqlQuery = "SELECT book_id, genre_id FROM books_genres WHERE book_id IN (:bookIds)";
+        Map<Long, LongList> genreIdsByBookId = new HashMap<>();
+        for (List<Long> chunk : JdbcBatchOperations.idChunks(bookIds)) {
+            namedJdbc.query(sqlQuery, Map.of("bookIds", chunk), (RowCallbackHandler) rs ->
+                    genreIdsByBookId.computeIfAbsent(rs.getLong("book_id"), bookId -> new LongList(4))
+                            .add(rs.getLong("genre_id")));
+        }
+        return genreIdsByBookId;
+    }
+
+    private void batchInsertGenresRelations(List<BookGenreRelation> relations) {
+        if (relations.isEmpty()) {
+            return;
+        }
         String sqlQuery = "INSERT INTO books_genres(book_id, genre_id) VALUES (:bookId, :genreId)";
-        SqlParameterSource[] params = relations.stream()
+        namedJdbc.batchUpdate(sqlQuery, toParams(relations));
+    }
+
+    private void batchDeleteGenresRelations(List<BookGenreRelation> relations) {
+        if (relations.isEmpty()) {
+            return;
+        }
+        String sqlQuery = "DELETE FROM books_genres WHERE book_id = :bookId AND genre_id = :genreId";
+        namedJdbc.batchUpdate(sqlQuery, toParams(relations));
+    }
+
+    private static SqlParameterSource[] toParams(List<BookGenreRelation> relations) {
+        return relations.stream()
                 .map(relation ->
                         new MapSqlParameterSource("bookId", relation.bookId)
                             .addValue("genreId", relation.genreId))
                 .toArray(SqlParameterSource[]::new);
-        namedJdbc.batchUpdate(sqlQuery, params);
-    }
-
-    private void removeGenresRelationsFor(Book book) {
-        String sqlQuery = "DELETE FROM books_genres WHERE book_id = :bookId";
-        namedJdbc.update(sqlQuery, Map.of("bookId", book.getId()));
     }
 
-    private static Book mapBook(ResultSet rs) throws SQLException {
+    private static Book mapBook(ResultSet rs, QueryFlyweights flyweights) throws SQLException {
         Book book = new Book();
         book.setId(rs.getLong("book_id"));
         book.setTitle(rs.getString("title"));
+        book.setVersion(rs.getLong("version"));
         long authorId = rs.getLong("author_id");
-        String authorName = rs.getString("author_name");
         if (authorId != 0) {
-            Author author = new Author(authorId, authorName);
-            book.setAuthor(author);
+            book.setAuthor(flyweights.author(authorId, rs.getString("author_name")));
         }
         return book;
     }
@@ -169,42 +557,126 @@ public class JdbcBookRepository implements BookRepository {
         return genre;
     }
 
+    @RequiredArgsConstructor
     private static class BookRowMapper implements RowMapper<Book> {
 
+        private final QueryFlyweights flyweights;
+
         @Override
         public Book mapRow(ResultSet rs, int rowNum) throws SQLException {
-            return mapBook(rs);
+            return mapBook(rs, flyweights);
         }
     }
 
-    @SuppressWarnings("ClassCanBeRecord")
+    // Книги и связи упорядочены по id книги, поэтому жанры очередной книги - следующий отрезок связей,
+    // который копируется в массив точной длины
     @RequiredArgsConstructor
-    private static class BookResultSetExtractor implements ResultSetExtractor<Book> {
+    private static class BookSummaryRowMapper implements RowMapper<BookSummary> {
+
+        private final QueryFlyweights flyweights;
+
+        private final GenreRelations relations;
+
+        private int relation;
 
         @Override
-        public Book extractData(ResultSet rs) throws SQLException, DataAccessException {
-            if (!rs.next()) return null;
-            Book book = mapBook(rs);
-            Genre genre = mapGenre(rs);
-            if (genre.getId() != 0)
-                book.addGenre(genre);
-            while (rs.next()) {
-                book.addGenre(mapGenre(rs));
+        public BookSummary mapRow(ResultSet rs, int rowNum) throws SQLException {
+            long bookId = rs.getLong("book_id");
+            LongList relationBookIds = relations.bookIds();
+            while (relation < relationBookIds.size() && relationBookIds.get(relation) < bookId) {
+                relation++;
             }
-            return book;
+            int firstRelation = relation;
+            while (relation < relationBookIds.size() && relationBookIds.get(relation) == bookId) {
+                relation++;
+            }
+            long authorId = rs.getLong("author_id");
+            String authorName = authorId != 0 ? flyweights.authorName(authorId, rs.getString("author_name")) : null;
+            return new BookSummary(bookId, rs.getString("title"), authorId, authorName,
+                    relations.genreIds().toArray(firstRelation, relation), rs.getLong("version"));
         }
     }
 
-    private record BookGenreRelation(long bookId, long genreId) {
+    private interface BooksCallbackHandler extends RowCallbackHandler {
+
+        // Передаёт дальше книгу, которая ещё собирается из строк результата
+        void complete();
     }
 
-    private static class BookGenreRelationRowMapper implements RowMapper<BookGenreRelation> {
+    // Строки одной книги идут подряд (ORDER BY books.id), поэтому в памяти держится только текущая книга
+    @RequiredArgsConstructor
+    private static class BookAggregatingCallbackHandler implements BooksCallbackHandler {
+
+        private final QueryFlyweights flyweights;
+
+        private final Consumer<Book> action;
+
+        private Book current;
 
         @Override
-        public BookGenreRelation mapRow(ResultSet rs, int rowNum) throws SQLException {
+        public void processRow(ResultSet rs) throws SQLException {
             long bookId = rs.getLong("book_id");
+            if (current == null || current.getId() != bookId) {
+                complete();
+                current = mapBook(rs, flyweights);
+            }
             long genreId = rs.getLong("genre_id");
-            return new BookGenreRelation(bookId, genreId);
+            if (genreId != 0) {
+                current.addGenre(flyweights.genre(genreId, rs.getString("genre_name")));
+            }
+        }
+
+        @Override
+        public void complete() {
+            if (current != null) {
+                action.accept(current);
+                current = null;
+            }
+        }
+    }
+
+    // Каждая строка - готовая книга, жанры приходят парой массивов одинаковой длины
+    @RequiredArgsConstructor
+    private static class AggregatedBookCallbackHandler implements BooksCallbackHandler {
+
+        private final QueryFlyweights flyweights;
+
+        private final Consumer<Book> action;
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            Book book = mapBook(rs, flyweights);
+            Object[] genreIds = toArray(rs.getArray("genre_ids"));
+            Object[] genreNames = toArray(rs.getArray("genre_names"));
+            for (int i = 0; i < genreIds.length; i++) {
+                book.addGenre(flyweights.genre(((Number) genreIds[i]).longValue(), (String) genreNames[i]));
+            }
+            action.accept(book);
         }
+
+        @Override
+        public void complete() {
+        }
+
+        private static Object[] toArray(Array array) throws SQLException {
+            if (array == null) {
+                return new Object[0];
+            }
+            try {
+                return (Object[]) array.getArray();
+            } finally {
+                array.free();
+            }
+        }
+    }
+
+    private record BookGenreRelation(long bookId, long genreId) {
+    }
+
+    private record UpdatedBookRow(long version, String authorName) {
+    }
+
+    // i-я связь - пара (bookIds[i], genreIds[i])
+    private record GenreRelations(LongList bookIds, LongList genreIds) {
     }
 }
@@ -3,6 +3,7 @@ package ru.otus.hw.repositories;
 import org.springframework.dao.DataAccessException;
 import org.springframework.jdbc.core.JdbcOperations;
 import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations;
@@ -10,12 +11,14 @@ import org.springframework.jdbc.core.namedparam.SqlParameterSource;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
-import ru.otus.hw.exceptions.EntityNotFoundException;
+import ru.otus.hw.collections.LongSet;
 import ru.otus.hw.models.Genre;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 @Repository
 public class JdbcGenreRepository implements GenreRepository {
@@ -30,20 +33,37 @@ public class JdbcGenreRepository implements GenreRepository {
 
     @Override
     public Optional<Genre> findById(long id) {
-        String sqlQuery = "SELECT id, name FROM genres WHERE id = :id";
+        String sqlQuery = "SELECT id, name, version FROM genres WHERE id = :id";
         Genre genre = namedJdbc.query(sqlQuery, Map.of("id", id), new GenreResultSetExtractor());
         return Optional.ofNullable(genre);
     }
 
     @Override
     public List<Genre> findAll() {
-        return jdbc.query("SELECT id, name FROM genres", new GenreRowMapper());
+        return jdbc.query("SELECT id, name, version FROM genres", new GenreRowMapper());
     }
 
     @Override
-    public List<Genre> findAllByIds(Set<Long> ids) {
-        String sqlQuery = "SELECT id, name FROM genres WHERE id IN (:ids)";
-        return namedJdbc.query(sqlQuery, Map.of("ids", ids),  new GenreRowMapper());
+    public List<Genre> findAllByIds(LongSet ids) {
+        String sqlQuery = "SELECT id, name, version FROM genres WHERE id IN (:ids) ORDER BY id";
+        List<Genre> genres = new ArrayList<>(ids.size());
+        for (List<Long> chunk : JdbcBatchOperations.idChunks(ids)) {
+            genres.addAll(namedJdbc.query(sqlQuery, Map.of("ids", chunk), new GenreRowMapper()));
+        }
+        return genres;
+    }
+
+    @Override
+    public List<Genre> findPage(long afterId, int limit) {
+        String sqlQuery = "SELECT id, name, version FROM genres WHERE id > :afterId ORDER BY id LIMIT :limit";
+        return namedJdbc.query(sqlQuery, Map.of("afterId", afterId, "limit", limit), new GenreRowMapper());
+    }
+
+    @Override
+    public void forEach(Consumer<Genre> action) {
+        String sqlQuery = "SELECT id, name, version FROM genres ORDER BY id";
+        jdbc.query(JdbcStreamingQueries.forwardOnly(sqlQuery),
+                (RowCallbackHandler) rs -> action.accept(mapGenre(rs)));
     }
 
     @Override
@@ -54,11 +74,25 @@ public class JdbcGenreRepository implements GenreRepository {
         return update(genre);
     }
 
+    @Override
+    public List<Genre> saveAll(Collection<Genre> genres) {
+        Map<Boolean, List<Genre>> genresByNew = genres.stream()
+                .collect(Collectors.partitioningBy(genre -> genre.getId() == 0));
+        insertAll(genresByNew.get(true));
+        updateAll(genresByNew.get(false));
+        return List.copyOf(genres);
+    }
+
     public void deleteById(long id) {
         String sqlQuery = "DELETE FROM genres WHERE id = :id";
         namedJdbc.update(sqlQuery, Map.of("id", id));
     }
 
+    @Override
+    public void deleteAllByIds(LongSet ids) {
+        JdbcBatchOperations.deleteByIds(namedJdbc, "genres", "id", ids);
+    }
+
     private Genre insert(Genre genre) {
         KeyHolder kh = new GeneratedKeyHolder();
         String sqlQuery = "INSERT INTO genres (name) VALUES (:name)";
@@ -67,22 +101,66 @@ public class JdbcGenreRepository implements GenreRepository {
 
         //noinspection DataFlowIssue
         genre.setId(kh.getKey().longValue());
+        genre.setVersion(0);
         return genre;
     }
 
     private Genre update(Genre genre) {
-        String sqlQuery = "UPDATE genres SET name = :name WHERE id = :id";
-        int updatedRows = namedJdbc.update(sqlQuery, Map.of("name", genre.getName(),  "id", genre.getId()));
+        String sqlQuery = """
+                UPDATE genres SET name = :name, version = version + 1
+                WHERE id = :id AND version = :version
+                """;
+        int updatedRows = namedJdbc.update(sqlQuery,
+                Map.of("name", genre.getName(), "id", genre.getId(), "version", genre.getVersion()));
         if (updatedRows == 0) {
-            throw new EntityNotFoundException("Genre with id " + genre.getId() + " not found");
+            throw JdbcOptimisticLocking.updateFailure(namedJdbc, "genres", "Genre", genre.getId(),
+                    genre.getVersion());
         }
+        genre.setVersion(genre.getVersion() + 1);
         return genre;
     }
 
+    private void insertAll(List<Genre> genres) {
+        if (genres.isEmpty()) {
+            return;
+        }
+        List<Long> ids = JdbcBatchOperations.insertReturningIds(namedJdbc, "genres", List.of("name"),
+                genres, genre -> Collections.singletonList(genre.getName()));
+        for (int i = 0; i < genres.size(); i++) {
+            genres.get(i).setId(ids.get(i));
+            genres.get(i).setVersion(0);
+        }
+    }
+
+    private void updateAll(List<Genre> genres) {
+        if (genres.isEmpty()) {
+            return;
+        }
+        String sqlQuery = """
+                UPDATE genres SET name = :name, version = version + 1
+                WHERE id = :id AND version = :version
+                """;
+        SqlParameterSource[] params = genres.stream()
+                .map(genre -> new MapSqlParameterSource("id", genre.getId())
+                        .addValue("name", genre.getName())
+                        .addValue("version", genre.getVersion()))
+                .toArray(SqlParameterSource[]::new);
+        int[] updatedRows = namedJdbc.batchUpdate(sqlQuery, params);
+        for (int i = 0; i < updatedRows.length; i++) {
+            Genre genre = genres.get(i);
+            if (updatedRows[i] == 0) {
+                throw JdbcOptimisticLocking.updateFailure(namedJdbc, "genres", "Genre", genre.getId(),
+                        genre.getVersion());
+            }
+        }
+        genres.forEach(genre -> genre.setVersion(genre.getVersion() + 1));
+    }
+
     private static Genre mapGenre(ResultSet rs) throws SQLException {
         Genre genre = new Genre();
         genre.setId(rs.getLong("id"));
         genre.setName(rs.getString("name"));
+        genre.setVersion(rs.getLong("version"));
         return genre;
     }
 
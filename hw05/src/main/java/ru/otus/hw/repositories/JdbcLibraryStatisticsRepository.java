@@ -0,0 +1,99 @@
+package ru.otus.hw.repositories;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations;
+import org.springframework.stereotype.Repository;
+import ru.otus.hw.statistics.BooksCount;
+import ru.otus.hw.statistics.LibraryTotals;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Счётчики считаются в базе через GROUP BY по индексам books(author_id) и books_genres(genre_id):
+ * H2 агрегирует строки потоком в порядке индекса, а в приложение приходит по строке на автора или жанр.
+ */
+@Repository
+@RequiredArgsConstructor
+public class JdbcLibraryStatisticsRepository implements LibraryStatisticsRepository {
+
+    private final NamedParameterJdbcOperations namedJdbc;
+
+    private final JdbcOperations jdbc;
+
+    @Override
+    public LibraryTotals getTotals() {
+        String sqlQuery = """
+                SELECT (SELECT COUNT(*) FROM books) AS books_count,
+                       (SELECT COUNT(*) FROM authors) AS authors_count,
+                       (SELECT COUNT(*) FROM genres) AS genres_count
+                """;
+        return jdbc.queryForObject(sqlQuery, (rs, rowNum) -> new LibraryTotals(
+                rs.getLong("books_count"), rs.getLong("authors_count"), rs.getLong("genres_count")));
+    }
+
+    @Override
+    public List<BooksCount> findTopAuthors(int limit) {
+        String sqlQuery = """
+                SELECT authors.id, authors.full_name AS name, counts.books_count
+                FROM (
+                    SELECT author_id, COUNT(*) AS books_count FROM books
+                    WHERE author_id IS NOT NULL
+                    GROUP BY author_id
+                    ORDER BY books_count DESC, author_id LIMIT :limit
+                ) counts
+                JOIN authors ON authors.id = counts.author_id
+                ORDER BY counts.books_count DESC, authors.id
+                """;
+        return namedJdbc.query(sqlQuery, Map.of("limit", limit), (rs, rowNum) -> mapBooksCount(rs));
+    }
+
+    @Override
+    public List<BooksCount> findTopGenres(int limit) {
+        String sqlQuery = """
+                SELECT genres.id, genres.name, counts.books_count
+                FROM (
+                    SELECT genre_id, COUNT(*) AS books_count FROM books_genres
+                    GROUP BY genre_id
+                    ORDER BY books_count DESC, genre_id LIMIT :limit
+                ) counts
+                JOIN genres ON genres.id = counts.genre_id
+                ORDER BY counts.books_count DESC, genres.id
+                """;
+        return namedJdbc.query(sqlQuery, Map.of("limit", limit), (rs, rowNum) -> mapBooksCount(rs));
+    }
+
+    // Авторы без книг тоже попадают в результат, с нулевым счётчиком
+    @Override
+    public void forEachAuthorBooksCount(Consumer<BooksCount> action) {
+        String sqlQuery = """
+                SELECT authors.id, authors.full_name AS name, COUNT(books.id) AS books_count FROM authors
+                LEFT JOIN books ON books.author_id = authors.id
+                GROUP BY authors.id
+                ORDER BY authors.id
+                """;
+        jdbc.query(JdbcStreamingQueries.forwardOnly(sqlQuery),
+                (RowCallbackHandler) rs -> action.accept(mapBooksCount(rs)));
+    }
+
+    @Override
+    public void forEachGenreBooksCount(Consumer<BooksCount> action) {
+        String sqlQuery = """
+                SELECT genres.id, genres.name, COUNT(books_genres.book_id) AS books_count FROM genres
+                LEFT JOIN books_genres ON books_genres.genre_id = genres.id
+                GROUP BY genres.id
+                ORDER BY genres.id
+                """;
+        jdbc.query(JdbcStreamingQueries.forwardOnly(sqlQuery),
+                (RowCallbackHandler) rs -> action.accept(mapBooksCount(rs)));
+    }
+
+    private static BooksCount mapBooksCount(ResultSet rs) throws SQLException {
+        return new BooksCount(rs.getLong("id"), rs.getString("name"), rs.getLong("books_count"));
+    }
+}
@@ -0,0 +1,28 @@
+package ru.otus.hw.repositories;
+
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations;
+import ru.otus.hw.exceptions.EntityNotFoundException;
+import ru.otus.hw.exceptions.EntityVersionConflictException;
+
+import java.util.List;
+import java.util.Map;
+
+final class JdbcOptimisticLocking {
+
+    private JdbcOptimisticLocking() {
+    }
+
+    // UPDATE ... WHERE id = :id AND version = :version не изменил строку: её либо нет, либо уже изменили.
+    // Версия перечитывается только на этом редком пути, успешное обновление остаётся одной командой
+    static RuntimeException updateFailure(NamedParameterJdbcOperations namedJdbc, String table,
+                                          String entityName, long id, long expectedVersion) {
+        String sqlQuery = "SELECT version FROM %s WHERE id = :id".formatted(table);
+        List<Long> versions = namedJdbc.queryForList(sqlQuery, Map.of("id", id), Long.class);
+        if (versions.isEmpty()) {
+            return new EntityNotFoundException("%s with id %d not found".formatted(entityName, id));
+        }
+        return new EntityVersionConflictException(
+                "%s with id %d was modified concurrently: expected version %d, actual %d"
+                        .formatted(entityName, id, expectedVersion, versions.get(0)));
+    }
+}
@@ -0,0 +1,24 @@
+package ru.otus.hw.repositories;
+
+import org.springframework.jdbc.core.PreparedStatementCreator;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+final class JdbcStreamingQueries {
+
+    static final int STREAM_FETCH_SIZE = 1000;
+
+    private JdbcStreamingQueries() {
+    }
+
+    // Курсор только вперёд с ограниченным fetch size: строки читаются порциями, а не всем результатом сразу
+    static PreparedStatementCreator forwardOnly(String sqlQuery) {
+        return connection -> {
+            PreparedStatement ps = connection.prepareStatement(sqlQuery,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(STREAM_FETCH_SIZE);
+            return ps;
+        };
+    }
+}
@@ -0,0 +1,19 @@
+package ru.otus.hw.repositories;
+
+import ru.otus.hw.statistics.BooksCount;
+import ru.otus.hw.statistics.LibraryTotals;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+public interface LibraryStatisticsRepository {
+    LibraryTotals getTotals();
+
+    List<BooksCount> findTopAuthors(int limit);
+
+    List<BooksCount> findTopGenres(int limit);
+
+    void forEachAuthorBooksCount(Consumer<BooksCount> action);
+
+    void forEachGenreBooksCount(Consumer<BooksCount> action);
+}
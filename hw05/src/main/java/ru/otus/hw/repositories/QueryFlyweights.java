@@ -0,0 +1,31 @@
+package ru.otus.hw.repositories;
+
+import ru.otus.hw.models.Author;
+import ru.otus.hw.models.Genre;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Авторы и жанры, уже встреченные в результате одного запроса книг.
+ * Книги результата ссылаются на один экземпляр автора и жанра вместо копии на каждую строку,
+ * а имена из остальных строк сразу становятся мусором. Живёт не дольше одного вызова репозитория.
+ */
+final class QueryFlyweights {
+
+    private final Map<Long, Author> authors = new HashMap<>();
+
+    private final Map<Long, Genre> genres = new HashMap<>();
+
+    Author author(long id, String fullName) {
+        return authors.computeIfAbsent(id, key -> new Author(key, fullName));
+    }
+
+    String authorName(long id, String fullName) {
+        return author(id, fullName).getFullName();
+    }
+
+    Genre genre(long id, String name) {
+        return genres.computeIfAbsent(id, key -> new Genre(key, name));
+    }
+}
@@ -0,0 +1,322 @@
+package ru.otus.hw.search;
+
+import org.springframework.stereotype.Component;
+import ru.otus.hw.collections.LongList;
+import ru.otus.hw.collections.LongSet;
+import ru.otus.hw.models.Author;
+import ru.otus.hw.models.Book;
+import ru.otus.hw.repositories.JdbcBookRepository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Инвертированный индекс книг по словам названия и имени автора.
+ * Строится при первом поиске потоковым чтением всех книг, дальше поддерживается
+ * вызовами при сохранении и удалении книг и авторов.
+ */
+@Component
+public class BookSearchIndex {
+
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final double TITLE_WEIGHT = 2.0;
+
+    private static final double AUTHOR_WEIGHT = 1.0;
+
+    // Лучший результат наверху: больший score, при равенстве меньший id
+    private static final Comparator<SearchHit> RANK_ORDER = Comparator.comparingDouble(SearchHit::score).reversed()
+            .thenComparingLong(SearchHit::bookId);
+
+    private final JdbcBookRepository bookRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, LongPostings> titleTerms = new HashMap<>();
+
+    private final Map<String, LongPostings> authorTerms = new HashMap<>();
+
+    private final Map<Long, LongPostings> booksByAuthor = new HashMap<>();
+
+    private final Map<Long, String> authorNames = new HashMap<>();
+
+    private final IndexedBooks indexedBooks = new IndexedBooks();
+
+    private volatile boolean built;
+
+    public BookSearchIndex(JdbcBookRepository bookRepository) {
+        this.bookRepository = bookRepository;
+    }
+
+    // Куча не больше числа книг в индексе плюс одна: большие offset и limit не раздувают её и не переполняются,
+    // а куча, вмещающая все книги, никогда не заполняется и не включает отсечение
+    public SearchHits search(String query, long offset, int limit) {
+        ensureBuilt();
+        lock.readLock().lock();
+        try {
+            List<TermStream> streams = new ArrayList<>();
+            for (String term : tokenize(query)) {
+                addStream(streams, titleTerms.get(term), TITLE_WEIGHT);
+                addStream(streams, authorTerms.get(term), AUTHOR_WEIGHT);
+            }
+            int topSize = (int) Math.min(offset + limit, indexedBooks.count() + 1L);
+            return rank(streams, offset, topSize);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Изменения до построения индекса пропускаются: построение прочитает их из базы.
+    // built проверяется под блокировкой, чтобы изменение, закоммиченное во время построения, дождалось его конца
+    public void index(Collection<Book> books) {
+        if (books.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (!built) {
+                return;
+            }
+            removeBooks(books.stream().mapToLong(Book::getId).sorted().distinct().toArray());
+            books.forEach(this::addBook);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(LongSet bookIds) {
+        if (bookIds.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (!built) {
+                return;
+            }
+            removeBooks(bookIds.toArray());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void renameAuthor(long authorId, String fullName) {
+        lock.writeLock().lock();
+        try {
+            if (!built) {
+                return;
+            }
+            LongPostings books = booksByAuthor.get(authorId);
+            String oldName = authorNames.put(authorId, fullName);
+            if (books == null || oldName == null || oldName.equals(fullName)) {
+                return;
+            }
+            long[] bookIds = books.toArray();
+            for (String term : tokenize(oldName)) {
+                removeFromTerm(authorTerms, term, bookIds);
+            }
+            for (String term : tokenize(fullName)) {
+                authorTerms.computeIfAbsent(term, t -> new LongPostings()).addAll(books);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Книги удалённого автора удаляются каскадом в базе, здесь убираем их из индекса
+    public void removeAuthor(long authorId) {
+        lock.writeLock().lock();
+        try {
+            if (!built) {
+                return;
+            }
+            LongPostings books = booksByAuthor.get(authorId);
+            if (books != null) {
+                removeBooks(books.toArray());
+            }
+            authorNames.remove(authorId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void ensureBuilt() {
+        if (built) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (!built) {
+                bookRepository.forEach(this::addBook);
+                built = true;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void addBook(Book book) {
+        long bookId = book.getId();
+        for (String term : tokenize(book.getTitle())) {
+            titleTerms.computeIfAbsent(term, t -> new LongPostings()).add(bookId);
+        }
+        Author author = book.getAuthor();
+        indexedBooks.add(bookId, book.getTitle(), author != null ? author.getId() : 0);
+        if (author != null) {
+            authorNames.put(author.getId(), author.getFullName());
+            booksByAuthor.computeIfAbsent(author.getId(), id -> new LongPostings()).add(bookId);
+            for (String term : tokenize(author.getFullName())) {
+                authorTerms.computeIfAbsent(term, t -> new LongPostings()).add(bookId);
+            }
+        }
+    }
+
+    // Слова книги берутся из сохранённых при индексации названия и имени автора, поэтому id убирается
+    // только из её списков. Id сгруппированы по спискам, чтобы каждый список обходился один раз
+    private void removeBooks(long[] sortedBookIds) {
+        Map<String, LongList> bookIdsByTitleTerm = new HashMap<>();
+        Map<Long, LongList> bookIdsByAuthor = new HashMap<>();
+        for (long bookId : sortedBookIds) {
+            int index = indexedBooks.indexOf(bookId);
+            if (index < 0) {
+                continue;
+            }
+            for (String term : tokenize(indexedBooks.title(index))) {
+                bookIdsByTitleTerm.computeIfAbsent(term, t -> new LongList()).add(bookId);
+            }
+            long authorId = indexedBooks.authorId(index);
+            if (authorId != 0) {
+                bookIdsByAuthor.computeIfAbsent(authorId, id -> new LongList()).add(bookId);
+            }
+            indexedBooks.remove(index);
+        }
+        bookIdsByTitleTerm.forEach((term, bookIds) -> removeFromTerm(titleTerms, term, bookIds.toArray()));
+        bookIdsByAuthor.forEach((authorId, bookIds) -> {
+            long[] authorBookIds = bookIds.toArray();
+            removeFromTerm(booksByAuthor, authorId, authorBookIds);
+            for (String term : tokenize(authorNames.get(authorId))) {
+                removeFromTerm(authorTerms, term, authorBookIds);
+            }
+        });
+    }
+
+    private static <K> void removeFromTerm(Map<K, LongPostings> terms, K term, long[] sortedBookIds) {
+        LongPostings postings = terms.get(term);
+        if (postings != null) {
+            postings.removeAll(sortedBookIds);
+            if (postings.isEmpty()) {
+                terms.remove(term);
+            }
+        }
+    }
+
+    private void addStream(List<TermStream> streams, LongPostings postings, double weight) {
+        if (postings != null) {
+            streams.add(new TermStream(postings, weight * idf(postings.size())));
+        }
+    }
+
+    // idf из BM25: редкие слова весят больше, слово из всех книг почти ничего не добавляет
+    private double idf(int documentsWithTerm) {
+        return Math.log(1 + (indexedBooks.count() - documentsWithTerm + 0.5) / (documentsWithTerm + 0.5));
+    }
+
+    // Слияние отсортированных списков id слов запроса с отбором top-k в куче размера topSize (offset + limit).
+    // Отсечение MaxScore: когда куча заполнена, слова, которые даже все вместе не поднимут книгу выше
+    // худшей в куче, перестают порождать кандидатов и только досчитываются для кандидатов остальных слов.
+    // Так частые слова вроде общего префикса названий не заставляют обходить весь индекс.
+    private static SearchHits rank(List<TermStream> streams, long offset, int topSize) {
+        streams.sort(Comparator.comparingDouble(TermStream::weight));
+        int streamsCount = streams.size();
+        double[] maxScoreUpTo = new double[streamsCount];
+        long totalHitsLowerBound = 0;
+        for (int i = 0; i < streamsCount; i++) {
+            maxScoreUpTo[i] = (i > 0 ? maxScoreUpTo[i - 1] : 0) + streams.get(i).weight();
+            totalHitsLowerBound = Math.max(totalHitsLowerBound, streams.get(i).postings().size());
+        }
+        PriorityQueue<SearchHit> top = new PriorityQueue<>(topSize + 1, RANK_ORDER.reversed());
+        int[] cursors = new int[streamsCount];
+        int firstEssential = 0;
+        long countedHits = 0;
+        while (firstEssential < streamsCount) {
+            long bookId = Long.MAX_VALUE;
+            for (int i = firstEssential; i < streamsCount; i++) {
+                LongPostings postings = streams.get(i).postings();
+                if (cursors[i] < postings.size()) {
+                    bookId = Math.min(bookId, postings.get(cursors[i]));
+                }
+            }
+            if (bookId == Long.MAX_VALUE) {
+                break;
+            }
+            double score = 0;
+            for (int i = firstEssential; i < streamsCount; i++) {
+                LongPostings postings = streams.get(i).postings();
+                if (cursors[i] < postings.size() && postings.get(cursors[i]) == bookId) {
+                    score += streams.get(i).weight();
+                    cursors[i]++;
+                }
+            }
+            for (int i = firstEssential - 1; i >= 0; i--) {
+                // Кандидаты идут по возрастанию id, поэтому при равном score новая книга уступает книгам в куче
+                if (score + maxScoreUpTo[i] <= top.peek().score()) {
+                    break;
+                }
+                LongPostings postings = streams.get(i).postings();
+                cursors[i] = postings.seek(cursors[i], bookId);
+                if (cursors[i] < postings.size() && postings.get(cursors[i]) == bookId) {
+                    score += streams.get(i).weight();
+                }
+            }
+            countedHits++;
+            if (top.size() < topSize || isBetter(score, bookId, top.peek())) {
+                top.add(new SearchHit(bookId, score));
+                if (top.size() > topSize) {
+                    top.poll();
+                }
+                if (top.size() == topSize) {
+                    double threshold = top.peek().score();
+                    while (firstEssential < streamsCount && maxScoreUpTo[firstEssential] <= threshold) {
+                        firstEssential++;
+                    }
+                }
+            }
+        }
+        List<SearchHit> hits = new ArrayList<>(top);
+        hits.sort(RANK_ORDER);
+        // При отсечении не все совпавшие книги перебираются, и точное число найденных неизвестно
+        long totalHits = firstEssential == 0 ? countedHits : Math.max(countedHits, totalHitsLowerBound);
+        var page = hits.subList((int) Math.min(offset, hits.size()), hits.size());
+        return new SearchHits(totalHits, firstEssential == 0, page);
+    }
+
+    private static boolean isBetter(double score, long bookId, SearchHit worst) {
+        return score > worst.score() || score == worst.score() && bookId < worst.bookId();
+    }
+
+    static Set<String> tokenize(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String token : TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private record TermStream(LongPostings postings, double weight) {
+    }
+}
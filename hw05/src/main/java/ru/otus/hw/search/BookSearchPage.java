@@ -0,0 +1,12 @@
+package ru.otus.hw.search;
+
+import ru.otus.hw.summaries.BookSummary;
+import ru.otus.hw.summaries.GenreDictionary;
+
+import java.util.List;
+
+public record BookSearchPage(long totalHits, boolean exact, List<ScoredBook> books, GenreDictionary genres) {
+
+    public record ScoredBook(BookSummary book, double score) {
+    }
+}
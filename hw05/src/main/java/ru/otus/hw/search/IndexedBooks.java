@@ -0,0 +1,99 @@
+package ru.otus.hw.search;
+
+import java.util.Arrays;
+
+/**
+ * Проиндексированные книги: id по возрастанию, название и id автора в тех же позициях.
+ * По ним при изменении или удалении книги находятся ровно те списки слов, из которых её нужно убрать.
+ * Удалённая книга только помечается, массивы сжимаются, когда помеченных становится больше половины.
+ */
+final class IndexedBooks {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private static final long REMOVED = -1;
+
+    private long[] ids = new long[INITIAL_CAPACITY];
+
+    private String[] titles = new String[INITIAL_CAPACITY];
+
+    private long[] authorIds = new long[INITIAL_CAPACITY];
+
+    private int size;
+
+    private int removedCount;
+
+    // Число книг без помеченных удалёнными
+    int count() {
+        return size - removedCount;
+    }
+
+    // Позиция книги или -1, если её нет
+    int indexOf(long id) {
+        int index = Arrays.binarySearch(ids, 0, size, id);
+        return index >= 0 && authorIds[index] != REMOVED ? index : -1;
+    }
+
+    String title(int index) {
+        return titles[index];
+    }
+
+    // 0, если у книги нет автора
+    long authorId(int index) {
+        return authorIds[index];
+    }
+
+    // id новых книг растут, поэтому обычно это дописывание в конец
+    void add(long id, String title, long authorId) {
+        int index = size > 0 && ids[size - 1] >= id ? Arrays.binarySearch(ids, 0, size, id) : -size - 1;
+        if (index >= 0) {
+            if (authorIds[index] == REMOVED) {
+                removedCount--;
+            }
+            titles[index] = title;
+            authorIds[index] = authorId;
+            return;
+        }
+        int insertAt = -index - 1;
+        ensureCapacity(size + 1);
+        System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+        System.arraycopy(titles, insertAt, titles, insertAt + 1, size - insertAt);
+        System.arraycopy(authorIds, insertAt, authorIds, insertAt + 1, size - insertAt);
+        ids[insertAt] = id;
+        titles[insertAt] = title;
+        authorIds[insertAt] = authorId;
+        size++;
+    }
+
+    void remove(int index) {
+        titles[index] = null;
+        authorIds[index] = REMOVED;
+        removedCount++;
+        if (removedCount > size / 2) {
+            compact();
+        }
+    }
+
+    private void compact() {
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            if (authorIds[i] != REMOVED) {
+                ids[kept] = ids[i];
+                titles[kept] = titles[i];
+                authorIds[kept++] = authorIds[i];
+            }
+        }
+        Arrays.fill(titles, kept, size, null);
+        size = kept;
+        removedCount = 0;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (ids.length < capacity) {
+            int newCapacity = Math.max(capacity, ids.length * 2);
+            ids = Arrays.copyOf(ids, newCapacity);
+            titles = Arrays.copyOf(titles, newCapacity);
+            authorIds = Arrays.copyOf(authorIds, newCapacity);
+        }
+    }
+}
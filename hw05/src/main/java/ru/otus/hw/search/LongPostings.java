@@ -0,0 +1,119 @@
+package ru.otus.hw.search;
+
+import java.util.Arrays;
+
+/**
+ * Отсортированный по возрастанию список id без повторов на примитивном массиве.
+ */
+final class LongPostings {
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    private long[] ids = new long[INITIAL_CAPACITY];
+
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    long get(int index) {
+        return ids[index];
+    }
+
+    // Индекс первого id не меньше target начиная с from: экспоненциальный шаг, затем бинарный поиск
+    int seek(int from, long target) {
+        if (from >= size || ids[from] >= target) {
+            return from;
+        }
+        int low = from;
+        int bound = 1;
+        while (low + bound < size && ids[low + bound] < target) {
+            low += bound;
+            bound <<= 1;
+        }
+        int position = Arrays.binarySearch(ids, low + 1, Math.min(low + bound, size), target);
+        return position >= 0 ? position : -position - 1;
+    }
+
+    void add(long id) {
+        // id новых книг растут, поэтому обычно это дописывание в конец
+        if (size == 0 || ids[size - 1] < id) {
+            ensureCapacity(size + 1);
+            ids[size++] = id;
+            return;
+        }
+        int position = Arrays.binarySearch(ids, 0, size, id);
+        if (position >= 0) {
+            return;
+        }
+        int insertAt = -position - 1;
+        ensureCapacity(size + 1);
+        System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+        ids[insertAt] = id;
+        size++;
+    }
+
+    void addAll(LongPostings other) {
+        long[] merged = new long[size + other.size];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < size && j < other.size) {
+            long left = ids[i];
+            long right = other.ids[j];
+            if (left <= right) {
+                merged[k++] = left;
+                i++;
+                if (left == right) {
+                    j++;
+                }
+            } else {
+                merged[k++] = right;
+                j++;
+            }
+        }
+        while (i < size) {
+            merged[k++] = ids[i++];
+        }
+        while (j < other.size) {
+            merged[k++] = other.ids[j++];
+        }
+        ids = merged;
+        size = k;
+    }
+
+    // sortedIds должен быть отсортирован по возрастанию. Id до первого удаляемого не трогаются
+    void removeAll(long[] sortedIds) {
+        if (sortedIds.length == 0) {
+            return;
+        }
+        int first = Arrays.binarySearch(ids, 0, size, sortedIds[0]);
+        int kept = first >= 0 ? first : -first - 1;
+        int j = 0;
+        for (int i = kept; i < size; i++) {
+            long id = ids[i];
+            while (j < sortedIds.length && sortedIds[j] < id) {
+                j++;
+            }
+            if (j == sortedIds.length || sortedIds[j] != id) {
+                ids[kept++] = id;
+            }
+        }
+        size = kept;
+    }
+
+    long[] toArray() {
+        return Arrays.copyOf(ids, size);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (ids.length < capacity) {
+            ids = Arrays.copyOf(ids, Math.max(capacity, ids.length * 2));
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package ru.otus.hw.search;
+
+import java.util.List;
+
+/**
+ * @param totalHits      число найденных книг; если exact = false, это оценка снизу
+ * @param exact          все совпавшие книги были перебраны и totalHits точное
+ * @param hits           запрошенная страница результатов по убыванию релевантности
+ */
+public record SearchHits(long totalHits, boolean exact, List<SearchHit> hits) {
+}
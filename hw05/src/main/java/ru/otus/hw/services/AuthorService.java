@@ -4,15 +4,20 @@ import ru.otus.hw.models.Author;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface AuthorService {
     Optional<Author> findById(long id);
 
     List<Author> findAll();
 
+    List<Author> findPage(long afterId, int limit);
+
+    void forEach(Consumer<Author> action);
+
     Author insert(String fullName);
 
-    Author update(long id, String fullName);
+    Author update(long id, String fullName, long version);
 
     void deleteById(long id);
 }
@@ -2,11 +2,13 @@ package ru.otus.hw.services;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.otus.hw.models.Author;
 import ru.otus.hw.repositories.AuthorRepository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 @RequiredArgsConstructor
 @Service
@@ -14,24 +16,41 @@ public class AuthorServiceImpl implements AuthorService {
 
     private final AuthorRepository authorRepository;
 
+    @Transactional(readOnly = true)
     @Override
     public Optional<Author> findById(long id) {
         return authorRepository.findById(id);
     }
 
+    @Transactional(readOnly = true)
     @Override
     public List<Author> findAll() {
         return authorRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
+    @Override
+    public List<Author> findPage(long afterId, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Page limit must be positive");
+        }
+        return authorRepository.findPage(afterId, limit);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public void forEach(Consumer<Author> action) {
+        authorRepository.forEach(action);
+    }
+
     @Override
     public Author insert(String fullName) {
-        return save(0, fullName);
+        return save(0, fullName, 0);
     }
 
     @Override
-    public Author update(long id, String fullName) {
-        return save(id, fullName);
+    public Author update(long id, String fullName, long version) {
+        return save(id, fullName, version);
     }
 
     @Override
@@ -39,8 +58,8 @@ public class AuthorServiceImpl implements AuthorService {
         authorRepository.deleteById(id);
     }
 
-    private Author save(long id, String fullName) {
-        Author author = new Author(id, fullName);
+    private Author save(long id, String fullName, long version) {
+        Author author = new Author(id, fullName, version);
         return authorRepository.save(author);
     }
 }
@@ -1,19 +1,36 @@
 package ru.otus.hw.services;
 
+import ru.otus.hw.collections.LongSet;
+import ru.otus.hw.imports.ImportReport;
 import ru.otus.hw.models.Book;
+import ru.otus.hw.repositories.GenreMatch;
+import ru.otus.hw.search.BookSearchPage;
 
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Optional;
-import java.util.Set;
+import java.util.function.Consumer;
 
 public interface BookService {
     Optional<Book> findById(long id);
 
     List<Book> findAll();
 
-    Book insert(String title, long authorId, Set<Long> genresIds);
+    List<Book> findPage(long afterId, int limit);
 
-    Book update(long id, String title, long authorId, Set<Long> genresIds);
+    void forEach(Consumer<Book> action);
+
+    void forEachByAuthorId(long authorId, Consumer<Book> action);
+
+    void forEachByGenreIds(LongSet genreIds, GenreMatch match, Consumer<Book> action);
+
+    BookSearchPage search(String query, int page, int size);
+
+    Book insert(String title, long authorId, LongSet genresIds);
+
+    Book update(long id, String title, long authorId, LongSet genresIds, long version);
 
     void deleteById(long id);
+
+    ImportReport importFrom(Path path);
 }
@@ -2,45 +2,111 @@ package ru.otus.hw.services;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
-import ru.otus.hw.exceptions.EntityNotFoundException;
+import org.springframework.transaction.annotation.Transactional;
+import ru.otus.hw.collections.LongSet;
+import ru.otus.hw.imports.BookCatalogImporter;
+import ru.otus.hw.imports.ImportReport;
+import ru.otus.hw.models.Author;
 import ru.otus.hw.models.Book;
-import ru.otus.hw.repositories.AuthorRepository;
+import ru.otus.hw.models.Genre;
 import ru.otus.hw.repositories.BookRepository;
-import ru.otus.hw.repositories.GenreRepository;
+import ru.otus.hw.repositories.GenreMatch;
+import ru.otus.hw.search.BookSearchIndex;
+import ru.otus.hw.search.BookSearchPage;
+import ru.otus.hw.search.BookSearchPage.ScoredBook;
+import ru.otus.hw.search.SearchHit;
+import ru.otus.hw.summaries.BookSummary;
 
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.Set;
-
-import static org.springframework.util.CollectionUtils.isEmpty;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @RequiredArgsConstructor
 @Service
 public class BookServiceImpl implements BookService {
-    private final AuthorRepository authorRepository;
+    private final BookRepository bookRepository;
 
-    private final GenreRepository genreRepository;
+    private final BookCatalogImporter bookCatalogImporter;
 
-    private final BookRepository bookRepository;
+    private final BookSearchIndex bookSearchIndex;
 
+    @Transactional(readOnly = true)
     @Override
     public Optional<Book> findById(long id) {
         return bookRepository.findById(id);
     }
 
+    @Transactional(readOnly = true)
     @Override
     public List<Book> findAll() {
         return bookRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
+    @Override
+    public List<Book> findPage(long afterId, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Page limit must be positive");
+        }
+        return bookRepository.findPage(afterId, limit);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public void forEach(Consumer<Book> action) {
+        bookRepository.forEach(action);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public void forEachByAuthorId(long authorId, Consumer<Book> action) {
+        bookRepository.forEachByAuthorId(authorId, action);
+    }
+
+    @Transactional(readOnly = true)
     @Override
-    public Book insert(String title, long authorId, Set<Long> genresIds) {
-        return save(0, title, authorId, genresIds);
+    public void forEachByGenreIds(LongSet genreIds, GenreMatch match, Consumer<Book> action) {
+        if (genreIds == null || genreIds.isEmpty()) {
+            throw new IllegalArgumentException("Genres ids must not be empty");
+        }
+        bookRepository.forEachByGenreIds(genreIds, match, action);
     }
 
+    @Transactional(readOnly = true)
     @Override
-    public Book update(long id, String title, long authorId, Set<Long> genresIds) {
-        return save(id, title, authorId, genresIds);
+    public BookSearchPage search(String query, int page, int size) {
+        if (page <= 0 || size <= 0) {
+            throw new IllegalArgumentException("Page number and size must be positive");
+        }
+        var searchHits = bookSearchIndex.search(query, Math.multiplyExact(page - 1L, size), size);
+        var hitIds = LongSet.of(searchHits.hits().stream()
+                .mapToLong(SearchHit::bookId)
+                .toArray());
+        var summaries = bookRepository.findSummariesByIds(hitIds);
+        Map<Long, BookSummary> booksById = summaries.books().stream()
+                .collect(Collectors.toMap(BookSummary::id, Function.identity()));
+        var scoredBooks = searchHits.hits().stream()
+                .filter(hit -> booksById.containsKey(hit.bookId()))
+                .map(hit -> new ScoredBook(booksById.get(hit.bookId()), hit.score()))
+                .toList();
+        return new BookSearchPage(searchHits.totalHits(), searchHits.exact(), scoredBooks, summaries.genres());
+    }
+
+    @Transactional
+    @Override
+    public Book insert(String title, long authorId, LongSet genresIds) {
+        return save(0, title, authorId, genresIds, 0);
+    }
+
+    @Transactional
+    @Override
+    public Book update(long id, String title, long authorId, LongSet genresIds, long version) {
+        return save(id, title, authorId, genresIds, version);
     }
 
     @Override
@@ -48,19 +114,20 @@ public class BookServiceImpl implements BookService {
         bookRepository.deleteById(id);
     }
 
-    private Book save(long id, String title, long authorId, Set<Long> genresIds) {
-        if (isEmpty(genresIds)) {
-            throw new IllegalArgumentException("Genres ids must not be null");
-        }
+    @Override
+    public ImportReport importFrom(Path path) {
+        return bookCatalogImporter.importFrom(path);
+    }
 
-        var author = authorRepository.findById(authorId)
-                .orElseThrow(() -> new EntityNotFoundException("Author with id %d not found".formatted(authorId)));
-        var genres = genreRepository.findAllByIds(genresIds);
-        if (isEmpty(genres) || genresIds.size() != genres.size()) {
-            throw new EntityNotFoundException("One or all genres with ids %s not found".formatted(genresIds));
+    private Book save(long id, String title, long authorId, LongSet genresIds, long version) {
+        if (genresIds == null || genresIds.isEmpty()) {
+            throw new IllegalArgumentException("Genres ids must not be null");
         }
 
-        var book = new Book(id, title, author, genres);
+        var genres = genresIds.stream()
+                .mapToObj(genreId -> new Genre(genreId, null))
+                .toList();
+        var book = new Book(id, title, new Author(authorId, null), new ArrayList<>(genres), version);
         return bookRepository.save(book);
     }
 }
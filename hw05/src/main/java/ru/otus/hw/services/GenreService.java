@@ -1,21 +1,26 @@
 package ru.otus.hw.services;
 
+import ru.otus.hw.collections.LongSet;
 import ru.otus.hw.models.Genre;
 
 import java.util.List;
 import java.util.Optional;
-import java.util.Set;
+import java.util.function.Consumer;
 
 public interface GenreService {
     Optional<Genre> findById(long id);
 
     List<Genre> findAll();
 
-    List<Genre> findAllByIds(Set<Long> ids);
+    List<Genre> findPage(long afterId, int limit);
+
+    void forEach(Consumer<Genre> action);
+
+    List<Genre> findAllByIds(LongSet ids);
 
     Genre insert(String title);
 
-    Genre update(long id, String title);
+    Genre update(long id, String title, long version);
 
     void deleteById(long id);
 }
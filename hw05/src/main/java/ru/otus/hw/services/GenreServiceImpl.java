@@ -2,41 +2,61 @@ package ru.otus.hw.services;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.otus.hw.collections.LongSet;
 import ru.otus.hw.models.Genre;
 import ru.otus.hw.repositories.GenreRepository;
 
 import java.util.List;
 import java.util.Optional;
-import java.util.Set;
+import java.util.function.Consumer;
 
 @RequiredArgsConstructor
 @Service
 public class GenreServiceImpl implements GenreService {
     private final GenreRepository genreRepository;
 
+    @Transactional(readOnly = true)
     @Override
     public Optional<Genre> findById(long id) {
         return genreRepository.findById(id);
     }
 
+    @Transactional(readOnly = true)
     @Override
     public List<Genre> findAll() {
         return genreRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
     @Override
-    public List<Genre> findAllByIds(Set<Long> ids) {
+    public List<Genre> findPage(long afterId, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Page limit must be positive");
+        }
+        return genreRepository.findPage(afterId, limit);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public void forEach(Consumer<Genre> action) {
+        genreRepository.forEach(action);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public List<Genre> findAllByIds(LongSet ids) {
         return genreRepository.findAllByIds(ids);
     }
 
     @Override
     public Genre insert(String name) {
-        return save(0, name);
+        return save(0, name, 0);
     }
 
     @Override
-    public Genre update(long id, String name) {
-        return save(id, name);
+    public Genre update(long id, String name, long version) {
+        return save(id, name, version);
     }
 
     @Override
@@ -44,8 +64,8 @@ public class GenreServiceImpl implements GenreService {
         genreRepository.deleteById(id);
     }
 
-    private Genre save(long id, String name) {
-        Genre genre = new Genre(id, name);
+    private Genre save(long id, String name, long version) {
+        Genre genre = new Genre(id, name, version);
         return genreRepository.save(genre);
     }
 }
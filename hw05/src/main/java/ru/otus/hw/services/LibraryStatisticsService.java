@@ -0,0 +1,14 @@
+package ru.otus.hw.services;
+
+import ru.otus.hw.statistics.BooksCount;
+import ru.otus.hw.statistics.LibraryStatistics;
+
+import java.util.function.Consumer;
+
+public interface LibraryStatisticsService {
+    LibraryStatistics getStatistics(int topCount);
+
+    void forEachAuthorBooksCount(Consumer<BooksCount> action);
+
+    void forEachGenreBooksCount(Consumer<BooksCount> action);
+}
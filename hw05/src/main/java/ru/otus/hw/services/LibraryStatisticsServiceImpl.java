@@ -0,0 +1,41 @@
+package ru.otus.hw.services;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.otus.hw.repositories.LibraryStatisticsRepository;
+import ru.otus.hw.statistics.BooksCount;
+import ru.otus.hw.statistics.LibraryStatistics;
+
+import java.util.function.Consumer;
+
+@RequiredArgsConstructor
+@Service
+public class LibraryStatisticsServiceImpl implements LibraryStatisticsService {
+
+    private final LibraryStatisticsRepository statisticsRepository;
+
+    // Итоги и оба топа читаются в одной транзакции и согласованы между собой
+    @Transactional(readOnly = true)
+    @Override
+    public LibraryStatistics getStatistics(int topCount) {
+        if (topCount <= 0) {
+            throw new IllegalArgumentException("Top count must be positive");
+        }
+        return new LibraryStatistics(statisticsRepository.getTotals(),
+                statisticsRepository.findTopAuthors(topCount),
+                statisticsRepository.findTopGenres(topCount));
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public void forEachAuthorBooksCount(Consumer<BooksCount> action) {
+        statisticsRepository.forEachAuthorBooksCount(action);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public void forEachGenreBooksCount(Consumer<BooksCount> action) {
+        statisticsRepository.forEachGenreBooksCount(action);
+    }
+}
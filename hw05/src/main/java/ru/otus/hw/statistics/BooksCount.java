@@ -0,0 +1,9 @@
+package ru.otus.hw.statistics;
+
+/**
+ * @param id         id автора или жанра
+ * @param name       имя автора или название жанра
+ * @param booksCount число его книг
+ */
+public record BooksCount(long id, String name, long booksCount) {
+}
@@ -0,0 +1,11 @@
+package ru.otus.hw.statistics;
+
+import java.util.List;
+
+/**
+ * @param totals     общее число книг, авторов и жанров
+ * @param topAuthors авторы с наибольшим числом книг, по убыванию
+ * @param topGenres  жанры с наибольшим числом книг, по убыванию
+ */
+public record LibraryStatistics(LibraryTotals totals, List<BooksCount> topAuthors, List<BooksCount> topGenres) {
+}
@@ -0,0 +1,4 @@
+package ru.otus.hw.statistics;
+
+public record LibraryTotals(long booksCount, long authorsCount, long genresCount) {
+}
@@ -0,0 +1,14 @@
+package ru.otus.hw.summaries;
+
+import java.util.List;
+
+/**
+ * @param books  книги по возрастанию id
+ * @param genres жанры, на которые ссылаются книги
+ */
+public record BookSummaries(List<BookSummary> books, GenreDictionary genres) {
+
+    public BookSummaries {
+        books = List.copyOf(books);
+    }
+}
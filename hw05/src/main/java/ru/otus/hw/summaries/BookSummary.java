@@ -0,0 +1,58 @@
+package ru.otus.hw.summaries;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Неизменяемая книга для списков и поиска: автор лежит в самой записи,
+ * жанры - массивом id точной длины, имена жанров берутся из {@link GenreDictionary} результата.
+ *
+ * @param id         id книги
+ * @param title      название
+ * @param authorId   id автора или 0, если автор не указан
+ * @param authorName имя автора, один экземпляр строки на автора в пределах результата
+ * @param genreIds   id жанров по возрастанию
+ * @param version    версия книги для оптимистической блокировки
+ */
+public record BookSummary(long id, String title, long authorId, String authorName, long[] genreIds, long version) {
+
+    public BookSummary {
+        genreIds = genreIds.clone();
+    }
+
+    @Override
+    public long[] genreIds() {
+        return genreIds.clone();
+    }
+
+    // Обход жанров без копирования массива
+    public int genresCount() {
+        return genreIds.length;
+    }
+
+    public long genreId(int index) {
+        return genreIds[index];
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof BookSummary other
+                && id == other.id
+                && authorId == other.authorId
+                && version == other.version
+                && Objects.equals(title, other.title)
+                && Objects.equals(authorName, other.authorName)
+                && Arrays.equals(genreIds, other.genreIds);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Objects.hash(id, title, authorId, authorName, version) + Arrays.hashCode(genreIds);
+    }
+
+    @Override
+    public String toString() {
+        return "BookSummary[id=%d, title=%s, authorId=%d, authorName=%s, genreIds=%s, version=%d]"
+                .formatted(id, title, authorId, authorName, Arrays.toString(genreIds), version);
+    }
+}
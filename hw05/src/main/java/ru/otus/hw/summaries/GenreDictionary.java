@@ -0,0 +1,59 @@
+package ru.otus.hw.summaries;
+
+import ru.otus.hw.models.Genre;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+
+/**
+ * Неизменяемый словарь жанров одного результата: id по возрастанию и имена в тех же позициях.
+ * Книги хранят только id жанров, имя находится бинарным поиском.
+ */
+public final class GenreDictionary {
+
+    private static final GenreDictionary EMPTY = new GenreDictionary(new long[0], new String[0]);
+
+    private final long[] ids;
+
+    private final String[] names;
+
+    private GenreDictionary(long[] ids, String[] names) {
+        this.ids = ids;
+        this.names = names;
+    }
+
+    // Повторы id сворачиваются в один жанр
+    public static GenreDictionary of(Collection<Genre> genres) {
+        if (genres.isEmpty()) {
+            return EMPTY;
+        }
+        Genre[] sorted = genres.stream()
+                .sorted(Comparator.comparingLong(Genre::getId))
+                .toArray(Genre[]::new);
+        long[] ids = new long[sorted.length];
+        String[] names = new String[sorted.length];
+        int size = 0;
+        for (Genre genre : sorted) {
+            if (size == 0 || ids[size - 1] != genre.getId()) {
+                ids[size] = genre.getId();
+                names[size++] = genre.getName();
+            }
+        }
+        return new GenreDictionary(Arrays.copyOf(ids, size), Arrays.copyOf(names, size));
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public boolean contains(long id) {
+        return Arrays.binarySearch(ids, id) >= 0;
+    }
+
+    // Имя жанра или null, если жанра нет в словаре
+    public String name(long id) {
+        int index = Arrays.binarySearch(ids, id);
+        return index >= 0 ? names[index] : null;
+    }
+}
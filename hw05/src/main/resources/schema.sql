@@ -1,24 +1,34 @@
 create table authors (
     id bigserial,
     full_name varchar(255),
+    version bigint default 0 not null,
     primary key (id)
 );
 
 create table genres (
     id bigserial,
     name varchar(255),
+    version bigint default 0 not null,
     primary key (id)
 );
 
 create table books (
     id bigserial,
     title varchar(255),
-    author_id bigint references authors (id) on delete cascade,
+    author_id bigint,
+    version bigint default 0 not null,
     primary key (id)
 );
 
 create table books_genres (
-    book_id bigint references books(id) on delete cascade,
-    genre_id bigint references genres(id) on delete cascade,
+    book_id bigint,
+    genre_id bigint,
     primary key (book_id, genre_id)
-);
\ No newline at end of file
+);
+
+create index books_author_id_idx on books (author_id);
+create index books_genres_genre_id_idx on books_genres (genre_id);
+
+alter table books add foreign key (author_id) references authors (id) on delete cascade;
+alter table books_genres add foreign key (book_id) references books (id) on delete cascade;
+alter table books_genres add foreign key (genre_id) references genres (id) on delete cascade;
@@ -0,0 +1,48 @@
+package ru.otus.hw.collections;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Примитивные наборы и списки id ")
+class LongSetTest {
+
+    @DisplayName("должен хранить id набора по возрастанию без повторов")
+    @Test
+    void shouldKeepSortedDistinctIds() {
+        var ids = LongSet.of(5, 1, 3, 1, 5);
+
+        assertThat(ids.toArray()).containsExactly(1, 3, 5);
+        assertThat(ids).isEqualTo(LongSet.copyOf(List.of(3L, 5L, 1L)));
+        assertThat(ids.boxed()).containsExactly(1L, 3L, 5L);
+        assertThat(ids).hasToString("[1, 3, 5]");
+    }
+
+    @DisplayName("должен находить позицию id бинарным поиском")
+    @Test
+    void shouldFindIndexOfId() {
+        var ids = LongSet.of(10, 20, 30);
+
+        assertThat(ids.indexOf(20)).isEqualTo(1);
+        assertThat(ids.indexOf(25)).isNegative();
+        assertThat(ids.contains(30)).isTrue();
+        assertThat(LongSet.of().contains(30)).isFalse();
+    }
+
+    @DisplayName("должен накапливать id в списке и превращать его в набор")
+    @Test
+    void shouldCollectIdsIntoListAndSet() {
+        var list = new LongList(1);
+        for (long id : new long[]{7, 2, 7, 9, 2}) {
+            list.add(id);
+        }
+
+        assertThat(list.size()).isEqualTo(5);
+        assertThat(list.toArray()).containsExactly(7, 2, 7, 9, 2);
+        assertThat(list.toSet()).isEqualTo(LongSet.of(2, 7, 9));
+        assertThat(new LongList().toSet().isEmpty()).isTrue();
+    }
+}
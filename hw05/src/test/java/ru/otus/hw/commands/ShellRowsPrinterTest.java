@@ -0,0 +1,115 @@
+package ru.otus.hw.commands;
+
+import org.jline.terminal.Size;
+import org.jline.terminal.Terminal;
+import org.jline.terminal.impl.DumbTerminal;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Печать строк списков в терминал ")
+class ShellRowsPrinterTest {
+
+    private static final BiConsumer<StringBuilder, Long> RENDERER = (out, id) -> out.append("Row ").append(id);
+
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+    private final List<Integer> requestedLimits = new ArrayList<>();
+
+    @DisplayName("должен печатать все строки источника через разделитель")
+    @Test
+    void shouldPrintAllRowsWithDelimiters() throws IOException {
+        var printer = new ShellRowsPrinter(terminal(""));
+
+        printer.printAll(action -> LongStream.rangeClosed(1, 3).forEach(action::accept), RENDERER);
+
+        assertThat(lines()).containsExactly("Row 1,", "Row 2,", "Row 3");
+    }
+
+    @DisplayName("должен печатать не больше --limit строк и команду для следующей страницы")
+    @Test
+    void shouldPrintLimitedPageWithNextPageHint() throws IOException {
+        var printer = new ShellRowsPrinter(terminal(""));
+
+        printer.printPages("ab", pageLoader(10), id -> id, RENDERER, 2, 3, false);
+
+        assertThat(lines()).containsExactly("Row 3,", "Row 4,", "Row 5", "Next page: ab --after 5 --limit 3");
+    }
+
+    @DisplayName("не должен печатать команду для следующей страницы, когда строк больше нет")
+    @Test
+    void shouldNotPrintNextPageHintAfterLastRow() throws IOException {
+        var printer = new ShellRowsPrinter(terminal(""));
+
+        printer.printPages("ab", pageLoader(5), id -> id, RENDERER, 2, 3, false);
+
+        assertThat(lines()).containsExactly("Row 3,", "Row 4,", "Row 5");
+    }
+
+    @DisplayName("должен печатать все строки после --after, когда --limit не задан")
+    @Test
+    void shouldPrintAllRowsAfterIdWithoutLimit() throws IOException {
+        var printer = new ShellRowsPrinter(terminal(""));
+
+        printer.printPages("ab", pageLoader(5), id -> id, RENDERER, 2, 0, false);
+
+        assertThat(lines()).containsExactly("Row 3,", "Row 4,", "Row 5");
+    }
+
+    @DisplayName("должен читать строки частями ограниченного размера при любом --limit")
+    @Test
+    void shouldLoadHugeLimitInBoundedChunks() throws IOException {
+        int rowsCount = ShellRowsPrinter.UNPAGED_CHUNK_SIZE * 2 + 1;
+        var printer = new ShellRowsPrinter(terminal(""));
+
+        printer.printPages("ab", pageLoader(rowsCount), id -> id, RENDERER, 0, Integer.MAX_VALUE, false);
+
+        assertThat(lines()).hasSize(rowsCount).last().isEqualTo("Row " + rowsCount);
+        assertThat(requestedLimits).hasSize(3)
+                .allMatch(limit -> limit == ShellRowsPrinter.UNPAGED_CHUNK_SIZE + 1);
+    }
+
+    @DisplayName("должен печатать страницы высотой в терминал до нажатия q")
+    @Test
+    void shouldPrintPagesUntilPagerIsQuit() throws IOException {
+        var terminal = terminal(" q");
+        terminal.setSize(new Size(80, 3));
+        var printer = new ShellRowsPrinter(terminal);
+
+        printer.printPages("ab", pageLoader(10), id -> id, RENDERER, 0, 0, true);
+
+        assertThat(lines()).filteredOn(line -> line.startsWith("Row") || line.startsWith("Next"))
+                .containsExactly("Row 1,", "Row 2,", "Row 3,", "Row 4,", "Next page: ab --after 4 --pager");
+        assertThat(requestedLimits).containsExactly(3, 3);
+    }
+
+    private ShellRowsPrinter.PageLoader<Long> pageLoader(long rowsCount) {
+        return (afterId, limit) -> {
+            requestedLimits.add(limit);
+            return LongStream.rangeClosed(afterId + 1, Math.min(rowsCount, afterId + limit)).boxed().toList();
+        };
+    }
+
+    private Terminal terminal(String input) throws IOException {
+        return new DumbTerminal("test", Terminal.TYPE_DUMB,
+                new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), output, StandardCharsets.UTF_8);
+    }
+
+    // Подсказка пейджера стирается возвратом каретки, поэтому от строки остаётся текст после последнего \r
+    private List<String> lines() {
+        return output.toString(StandardCharsets.UTF_8).lines()
+                .map(line -> line.substring(line.lastIndexOf('\r') + 1))
+                .filter(line -> !line.isEmpty())
+                .toList();
+    }
+}
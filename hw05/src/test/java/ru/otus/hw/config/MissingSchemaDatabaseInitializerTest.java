@@ -0,0 +1,52 @@
+package ru.otus.hw.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.sql.init.SqlInitializationProperties;
+import org.springframework.boot.sql.init.DatabaseInitializationMode;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Инициализатор схемы постоянной базы ")
+class MissingSchemaDatabaseInitializerTest {
+
+    private final EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+            .setType(EmbeddedDatabaseType.H2)
+            .generateUniqueName(true)
+            .build();
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @DisplayName("должен создавать схему и данные только в пустой базе")
+    @Test
+    void shouldInitializeOnlyEmptyDatabase() {
+        var jdbc = new JdbcTemplate(database);
+
+        boolean firstStartInitialized = newInitializer().initializeDatabase();
+        jdbc.update("INSERT INTO authors (full_name) VALUES ('Author_saved')");
+        boolean secondStartInitialized = newInitializer().initializeDatabase();
+
+        assertThat(firstStartInitialized).isTrue();
+        assertThat(secondStartInitialized).isFalse();
+        assertThat(jdbc.queryForList("SELECT full_name FROM authors ORDER BY id", String.class))
+                .containsExactly("Author_1", "Author_2", "Author_3", "Author_saved");
+    }
+
+    private MissingSchemaDatabaseInitializer newInitializer() {
+        var properties = new SqlInitializationProperties();
+        properties.setMode(DatabaseInitializationMode.ALWAYS);
+        properties.setSchemaLocations(List.of("schema.sql"));
+        properties.setDataLocations(List.of("data.sql"));
+        return new MissingSchemaDatabaseInitializer(database, properties);
+    }
+}
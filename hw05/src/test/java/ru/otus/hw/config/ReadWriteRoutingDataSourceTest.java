@@ -0,0 +1,104 @@
+package ru.otus.hw.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.DataSourceInitializer;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.otus.hw.models.Genre;
+import ru.otus.hw.repositories.JdbcGenreRepository;
+import ru.otus.hw.services.GenreServiceImpl;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Маршрутизация запросов между основной базой и репликой ")
+@JdbcTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing_primary",
+        "app.datasource.replica.jdbc-url=jdbc:h2:mem:routing_replica",
+        "app.datasource.replica.username=sa"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ReadWriteRoutingConfig.class, GenreServiceImpl.class, JdbcGenreRepository.class,
+        ReadWriteRoutingDataSourceTest.ReplicaInitializerConfig.class})
+class ReadWriteRoutingDataSourceTest {
+
+    private static final String REPLICA_GENRE_NAME = "Genre_1_replica";
+
+    @Autowired
+    private GenreServiceImpl genreService;
+
+    @Autowired
+    private JdbcGenreRepository genreRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    @DisplayName("должен читать из реплики внутри read-only транзакций сервиса")
+    @Test
+    void shouldReadFromReplicaInReadOnlyTransactions() {
+        assertThat(genreService.findById(1)).map(Genre::getName).contains(REPLICA_GENRE_NAME);
+        assertThat(genreService.findAll()).extracting(Genre::getName).contains(REPLICA_GENRE_NAME);
+    }
+
+    @DisplayName("должен читать из основной базы вне транзакций и в пишущих транзакциях")
+    @Test
+    void shouldReadFromPrimaryOutsideReadOnlyTransactions() {
+        var readWriteTransaction = new TransactionTemplate(transactionManager);
+        Genre genreInTransaction = readWriteTransaction.execute(status -> genreRepository.findById(1).orElseThrow());
+
+        assertThat(genreRepository.findById(1)).map(Genre::getName).contains("Genre_1");
+        assertThat(genreInTransaction.getName()).isEqualTo("Genre_1");
+    }
+
+    @DisplayName("должен писать только в основную базу")
+    @Test
+    void shouldWriteToPrimary() {
+        var inserted = genreService.insert("Genre_routed");
+
+        String countQuery = "SELECT COUNT(*) FROM genres WHERE id = ?";
+        assertThat(new JdbcTemplate(primaryDataSource).queryForObject(countQuery, Long.class, inserted.getId()))
+                .isEqualTo(1);
+        assertThat(new JdbcTemplate(replicaDataSource).queryForObject(countQuery, Long.class, inserted.getId()))
+                .isZero();
+    }
+
+    // Вторая база H2 заполняется теми же данными, но жанр 1 в ней назван иначе, чтобы было видно, откуда чтение
+    @TestConfiguration
+    static class ReplicaInitializerConfig {
+
+        @Bean
+        DataSourceInitializer replicaInitializer(@Qualifier("replicaDataSource") DataSource replicaDataSource) {
+            var populator = new ResourceDatabasePopulator(new ClassPathResource("schema.sql"),
+                    new ClassPathResource("data.sql"),
+                    new ByteArrayResource("UPDATE genres SET name = '%s' WHERE id = 1"
+                            .formatted(REPLICA_GENRE_NAME).getBytes()));
+            var initializer = new DataSourceInitializer();
+            initializer.setDataSource(replicaDataSource);
+            initializer.setDatabasePopulator(populator);
+            return initializer;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package ru.otus.hw.converters;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.otus.hw.models.Author;
+import ru.otus.hw.models.Book;
+import ru.otus.hw.models.Genre;
+import ru.otus.hw.summaries.BookSummary;
+import ru.otus.hw.summaries.GenreDictionary;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Конвертер книг в строку ")
+class BookConverterTest {
+
+    private final AuthorConverter authorConverter = new AuthorConverter();
+
+    private final GenreConverter genreConverter = new GenreConverter();
+
+    private final BookConverter bookConverter = new BookConverter(authorConverter, genreConverter);
+
+    @DisplayName("должен выводить книгу с автором, жанрами и версией книги")
+    @Test
+    void shouldRenderBookWithAuthorGenresAndVersion() {
+        var book = new Book(1, "BookTitle_1", new Author(2, "Author_2", 7),
+                List.of(new Genre(3, "Genre_3", 8), new Genre(4, "Genre_4", 9)), 5);
+
+        assertThat(bookConverter.bookToString(book)).isEqualTo("Id: 1, title: BookTitle_1, "
+                + "author: {Id: 2, FullName: Author_2}, genres: [{Id: 3, Name: Genre_3}, {Id: 4, Name: Genre_4}], "
+                + "version: 5");
+    }
+
+    @DisplayName("должен выводить версию автора и жанра для --version в aupd и gupd")
+    @Test
+    void shouldRenderAuthorAndGenreVersion() {
+        assertThat(authorConverter.authorToString(new Author(2, "Author_2", 7)))
+                .isEqualTo("Id: 2, FullName: Author_2, Version: 7");
+        assertThat(genreConverter.genreToString(new Genre(3, "Genre_3", 8)))
+                .isEqualTo("Id: 3, Name: Genre_3, Version: 8");
+    }
+
+    @DisplayName("должен дописывать книгу в переданный буфер")
+    @Test
+    void shouldAppendBookToGivenBuilder() {
+        var book = new Book(5, "BookTitle_5", new Author(6, "Author_6"), List.of());
+        var out = new StringBuilder("prefix ");
+
+        assertThat(bookConverter.appendTo(out, book).toString())
+                .isEqualTo("prefix Id: 5, title: BookTitle_5, author: {Id: 6, FullName: Author_6}, genres: [], "
+                        + "version: 0");
+    }
+
+    @DisplayName("должен выводить книгу из списка в том же формате с именами жанров из словаря")
+    @Test
+    void shouldRenderBookSummaryLikeBook() {
+        var book = new Book(1, "BookTitle_1", new Author(2, "Author_2"),
+                List.of(new Genre(3, "Genre_3"), new Genre(4, "Genre_4")), 5);
+        var summary = new BookSummary(1, "BookTitle_1", 2, "Author_2", new long[] {3, 4}, 5);
+        var genres = GenreDictionary.of(List.of(new Genre(4, "Genre_4"), new Genre(3, "Genre_3"),
+                new Genre(5, "Genre_5")));
+
+        assertThat(bookConverter.appendTo(new StringBuilder(), summary, genres).toString())
+                .isEqualTo(bookConverter.bookToString(book));
+    }
+}
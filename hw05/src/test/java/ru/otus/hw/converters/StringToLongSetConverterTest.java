@@ -0,0 +1,29 @@
+package ru.otus.hw.converters;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.otus.hw.collections.LongSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Конвертер строки с id через запятую в набор id ")
+class StringToLongSetConverterTest {
+
+    private final StringToLongSetConverter converter = new StringToLongSetConverter();
+
+    @DisplayName("должен разбирать id с пробелами и повторами в упорядоченный набор")
+    @Test
+    void shouldParseCommaSeparatedIds() {
+        assertThat(converter.convert("6, 1,6 ,3")).isEqualTo(LongSet.of(1, 3, 6));
+        assertThat(converter.convert("42")).isEqualTo(LongSet.of(42));
+        assertThat(converter.convert(" , ")).isEqualTo(LongSet.of());
+    }
+
+    @DisplayName("должен отклонять нечисловые id")
+    @Test
+    void shouldRejectNonNumericIds() {
+        assertThatThrownBy(() -> converter.convert("1,two"))
+                .isInstanceOf(NumberFormatException.class);
+    }
+}
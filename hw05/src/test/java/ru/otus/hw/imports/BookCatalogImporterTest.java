@@ -0,0 +1,118 @@
+package ru.otus.hw.imports;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.otus.hw.config.ImportProperties;
+import ru.otus.hw.exceptions.CatalogImportException;
+import ru.otus.hw.models.Author;
+import ru.otus.hw.models.Book;
+import ru.otus.hw.models.Genre;
+import ru.otus.hw.repositories.JdbcAuthorRepository;
+import ru.otus.hw.repositories.JdbcBookRepository;
+import ru.otus.hw.repositories.JdbcGenreRepository;
+
+import java.net.URISyntaxException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static ru.otus.hw.imports.CatalogRecordReaderTest.catalog;
+
+// Каждая часть каталога коммитится в своей транзакции, поэтому тесты работают без общей транзакции
+// и удаляют импортированное после себя
+@DisplayName("Импорт каталога книг ")
+@JdbcTest(properties = {"app.import.chunk-size=2", "app.import.batch-size=1"})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@EnableConfigurationProperties(ImportProperties.class)
+@Import({BookCatalogImporter.class, CatalogRecordReader.class, JdbcAuthorRepository.class,
+        JdbcGenreRepository.class, JdbcBookRepository.class})
+class BookCatalogImporterTest {
+
+    private static final String IMPORTED_PREFIX = "Imported_";
+
+    @Autowired
+    private BookCatalogImporter importer;
+
+    @Autowired
+    private JdbcAuthorRepository authorRepository;
+
+    @Autowired
+    private JdbcGenreRepository genreRepository;
+
+    @Autowired
+    private JdbcBookRepository bookRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM books WHERE title LIKE ?", IMPORTED_PREFIX + "%");
+        jdbcTemplate.update("DELETE FROM authors WHERE full_name LIKE ?", IMPORTED_PREFIX + "%");
+        jdbcTemplate.update("DELETE FROM genres WHERE name LIKE ?", IMPORTED_PREFIX + "%");
+    }
+
+    @DisplayName("должен импортировать csv, создавая отсутствующих авторов и жанры один раз")
+    @Test
+    void shouldImportCsvCreatingMissingAuthorsAndGenresOnce() throws URISyntaxException {
+        var report = importer.importFrom(catalog("books.csv"));
+
+        assertThat(report.booksCount()).isEqualTo(2);
+        assertImportedBooks();
+    }
+
+    @DisplayName("должен импортировать jsonl, создавая отсутствующих авторов и жанры один раз")
+    @Test
+    void shouldImportJsonLinesCreatingMissingAuthorsAndGenresOnce() throws URISyntaxException {
+        var report = importer.importFrom(catalog("books.jsonl"));
+
+        assertThat(report.booksCount()).isEqualTo(2);
+        assertImportedBooks();
+    }
+
+    @DisplayName("должен сохранять импортированные части и откатывать часть с книгой без жанров")
+    @Test
+    void shouldKeepCommittedChunksAndRollBackChunkWithBookWithoutGenres() {
+        assertThatThrownBy(() -> importer.importFrom(catalog("books-without-genres.jsonl")))
+                .isInstanceOf(CatalogImportException.class)
+                .hasMessageContaining("Imported_4");
+
+        assertThat(importedBooks()).extracting(Book::getTitle).containsExactly("Imported_1", "Imported_2");
+        assertThat(authorRepository.findAll()).extracting(Author::getFullName).doesNotContain("Imported_Author");
+        assertThat(genreRepository.findAll()).extracting(Genre::getName).doesNotContain("Imported_Genre");
+    }
+
+    private void assertImportedBooks() {
+        var importedAuthor = authorRepository.findAll().stream()
+                .filter(author -> author.getFullName().startsWith(IMPORTED_PREFIX))
+                .toList();
+        var importedGenre = genreRepository.findAll().stream()
+                .filter(genre -> genre.getName().startsWith(IMPORTED_PREFIX))
+                .toList();
+        assertThat(importedAuthor).extracting(Author::getFullName).containsExactly("Imported_Author");
+        assertThat(importedGenre).extracting(Genre::getName).containsExactly("Imported_Genre");
+
+        var books = importedBooks();
+        assertThat(books).extracting(Book::getTitle).containsExactly("Imported_1", "Imported_2");
+        assertThat(books.get(0).getAuthor()).isEqualTo(new Author(1, "Author_1"));
+        assertThat(books.get(0).getGenres()).extracting(Genre::getName)
+                .containsExactlyInAnyOrder("Genre_1", "Imported_Genre");
+        assertThat(books.get(1).getAuthor()).isEqualTo(importedAuthor.get(0));
+        assertThat(books.get(1).getGenres()).extracting(Genre::getName)
+                .containsExactlyInAnyOrder("Imported_Genre", "Genre_2");
+    }
+
+    private List<Book> importedBooks() {
+        return bookRepository.findAll().stream()
+                .filter(book -> book.getTitle().startsWith(IMPORTED_PREFIX))
+                .toList();
+    }
+}
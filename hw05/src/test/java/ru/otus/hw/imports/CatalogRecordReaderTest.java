@@ -0,0 +1,60 @@
+package ru.otus.hw.imports;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.otus.hw.exceptions.CatalogImportException;
+
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Чтение записей каталога книг ")
+class CatalogRecordReaderTest {
+
+    private final CatalogRecordReader reader = new CatalogRecordReader();
+
+    @DisplayName("должен читать csv без заголовка и делить жанры по |")
+    @Test
+    void shouldReadCsvSkippingHeaderAndSplittingGenres() throws URISyntaxException {
+        try (var records = reader.read(catalog("books.csv"))) {
+            assertThat(records.toList()).containsExactly(
+                    new CatalogRecord("Imported_1", "Author_1", List.of("Genre_1", "Imported_Genre")),
+                    new CatalogRecord("Imported_2", "Imported_Author", List.of("Imported_Genre", "Genre_2")));
+        }
+    }
+
+    @DisplayName("должен читать jsonl по записи на строку, пропуская пустые строки")
+    @Test
+    void shouldReadJsonLinesSkippingBlankLines() throws URISyntaxException {
+        try (var records = reader.read(catalog("books.jsonl"))) {
+            assertThat(records.toList()).containsExactly(
+                    new CatalogRecord("Imported_1", "Author_1", List.of("Genre_1", "Imported_Genre")),
+                    new CatalogRecord("Imported_2", "Imported_Author", List.of("Imported_Genre", "Genre_2")));
+        }
+    }
+
+    @DisplayName("должен бросать исключение на строке csv без жанров")
+    @Test
+    void shouldThrowOnCsvLineWithoutGenres() throws URISyntaxException {
+        try (var records = reader.read(catalog("malformed.csv"))) {
+            assertThatThrownBy(records::toList)
+                    .isInstanceOf(CatalogImportException.class)
+                    .hasMessageContaining("Imported_1;Author_1");
+        }
+    }
+
+    @DisplayName("должен бросать исключение для несуществующего файла")
+    @Test
+    void shouldThrowOnMissingFile() {
+        assertThatThrownBy(() -> reader.read(Path.of("missing.csv")))
+                .isInstanceOf(CatalogImportException.class)
+                .hasMessageContaining("missing.csv");
+    }
+
+    static Path catalog(String name) throws URISyntaxException {
+        return Path.of(CatalogRecordReaderTest.class.getResource("/catalogs/" + name).toURI());
+    }
+}
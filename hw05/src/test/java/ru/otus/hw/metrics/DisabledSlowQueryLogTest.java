@@ -0,0 +1,57 @@
+package ru.otus.hw.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import ru.otus.hw.config.MetricsConfig;
+import ru.otus.hw.config.SlowQueryLogProperties;
+import ru.otus.hw.repositories.JdbcGenreRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Выключенный журнал медленных запросов ")
+@JdbcTest(properties = {"app.slow-query-log.enabled=false", "app.slow-query-log.threshold=0ms"})
+@ExtendWith(OutputCaptureExtension.class)
+@Import({JdbcGenreRepository.class, MetricsConfig.class, DisabledSlowQueryLogTest.MetricsTestConfig.class})
+class DisabledSlowQueryLogTest {
+
+    @Autowired
+    private JdbcGenreRepository genreRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @DisplayName("не должен писать запросы в лог, но должен замерять их таймером")
+    @Test
+    void shouldTimeStatementsWithoutLoggingThem(CapturedOutput output) {
+        int outputStart = output.getOut().length();
+
+        genreRepository.findById(1);
+
+        assertThat(output.getOut().substring(outputStart)).doesNotContain("Slow query: ");
+        assertThat(meterRegistry.find(SlowQueryDataSource.TIMER_NAME)
+                .tag("method", "JdbcGenreRepository.findById").timer())
+                .isNotNull()
+                .extracting(timer -> timer.count()).isEqualTo(1L);
+    }
+
+    @TestConfiguration
+    @EnableConfigurationProperties(SlowQueryLogProperties.class)
+    static class MetricsTestConfig {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
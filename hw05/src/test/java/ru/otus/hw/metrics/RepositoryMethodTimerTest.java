@@ -0,0 +1,68 @@
+package ru.otus.hw.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import ru.otus.hw.config.MetricsConfig;
+import ru.otus.hw.repositories.JdbcGenreRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Таймер методов репозиториев ")
+@JdbcTest
+@Import({JdbcGenreRepository.class, MetricsConfig.class, RepositoryMethodTimerTest.RegistryConfig.class})
+class RepositoryMethodTimerTest {
+
+    @Autowired
+    private JdbcGenreRepository genreRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @DisplayName("должен замерять каждый вызов с тегами репозитория и метода")
+    @Test
+    void shouldTimeEveryCallTaggedByRepositoryMethod() {
+        genreRepository.findAll();
+        genreRepository.findAll();
+        genreRepository.findById(1);
+
+        var findAllTimer = meterRegistry.find(RepositoryMethodTimer.TIMER_NAME)
+                .tags("repository", "JdbcGenreRepository", "method", "findAll").timer();
+        var findByIdTimer = meterRegistry.find(RepositoryMethodTimer.TIMER_NAME)
+                .tags("repository", "JdbcGenreRepository", "method", "findById").timer();
+
+        assertThat(findAllTimer).isNotNull();
+        assertThat(findAllTimer.count()).isEqualTo(2);
+        assertThat(findByIdTimer).isNotNull();
+        assertThat(findByIdTimer.count()).isEqualTo(1);
+    }
+
+    @DisplayName("должен отдавать выполняющийся метод репозитория только во время вызова")
+    @Test
+    void shouldExposeCurrentMethodDuringCall() {
+        List<String> methodsInsideCall = new ArrayList<>();
+
+        genreRepository.forEach(genre -> methodsInsideCall.add(RepositoryMethodTimer.currentMethod()));
+
+        assertThat(methodsInsideCall).isNotEmpty().containsOnly("JdbcGenreRepository.forEach");
+        assertThat(RepositoryMethodTimer.currentMethod()).isNull();
+    }
+
+    @TestConfiguration
+    static class RegistryConfig {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package ru.otus.hw.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.otus.hw.collections.LongSet;
+import ru.otus.hw.config.MetricsConfig;
+import ru.otus.hw.config.SlowQueryLogProperties;
+import ru.otus.hw.models.Genre;
+import ru.otus.hw.repositories.JdbcBookRepository;
+import ru.otus.hw.repositories.JdbcGenreRepository;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Журнал медленных запросов ")
+@JdbcTest(properties = "app.slow-query-log.threshold=0ms")
+@ExtendWith(OutputCaptureExtension.class)
+@Import({JdbcBookRepository.class, JdbcGenreRepository.class, MetricsConfig.class,
+        SlowQueryDataSourceTest.MetricsTestConfig.class})
+class SlowQueryDataSourceTest {
+
+    @Autowired
+    private JdbcBookRepository bookRepository;
+
+    @Autowired
+    private JdbcGenreRepository genreRepository;
+
+    @Autowired
+    private SlowQueryLog slowQueryLog;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @DisplayName("должен писать запрос с параметрами, числом строк и методом репозитория")
+    @Test
+    void shouldLogQueryWithParametersRowsAndRepositoryMethod(CapturedOutput output) {
+        int outputStart = output.getOut().length();
+
+        bookRepository.findById(1);
+
+        assertThat(output.getOut().substring(outputStart)).contains("Slow query: ",
+                "rows: 2, method: JdbcBookRepository.findById, ", "WHERE books.id = ? ORDER BY books.id, genres.id",
+                "parameters: [1]");
+    }
+
+    @DisplayName("должен суммировать изменённые строки пакетного запроса")
+    @Test
+    void shouldSumBatchUpdatedRows(CapturedOutput output) {
+        int outputStart = output.getOut().length();
+
+        genreRepository.saveAll(List.of(new Genre(1, "Genre_10"), new Genre(2, "Genre_20")));
+
+        assertThat(output.getOut().substring(outputStart)).contains("rows: 2, method: JdbcGenreRepository.saveAll, ",
+                "batch of 2, last parameters: [Genre_20, 2, 0]");
+    }
+
+    @DisplayName("должен замерять каждый запрос таймером с тегом метода репозитория")
+    @Test
+    void shouldTimeEveryStatementTaggedByRepositoryMethod() {
+        var timer = meterRegistry.find(SlowQueryDataSource.TIMER_NAME)
+                .tag("method", "JdbcGenreRepository.findAllByIds").timer();
+        long countBefore = timer == null ? 0 : timer.count();
+
+        genreRepository.findAllByIds(LongSet.of(1, 2));
+        genreRepository.findAllByIds(LongSet.of(3));
+
+        timer = meterRegistry.find(SlowQueryDataSource.TIMER_NAME)
+                .tag("method", "JdbcGenreRepository.findAllByIds").timer();
+        assertThat(timer).isNotNull();
+        assertThat(timer.count() - countBefore).isEqualTo(2);
+    }
+
+    @DisplayName("не должен писать запросы быстрее порога, изменённого во время работы")
+    @Test
+    @DirtiesContext
+    void shouldSkipQueriesFasterThanChangedThreshold(CapturedOutput output) {
+        slowQueryLog.setThreshold(Duration.ofMinutes(1));
+        int outputStart = output.getOut().length();
+
+        bookRepository.findById(1);
+
+        assertThat(output.getOut().substring(outputStart)).doesNotContain("Slow query: ");
+    }
+
+    @TestConfiguration
+    @EnableConfigurationProperties(SlowQueryLogProperties.class)
+    static class MetricsTestConfig {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
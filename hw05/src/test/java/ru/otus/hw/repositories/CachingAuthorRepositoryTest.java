@@ -0,0 +1,108 @@
+package ru.otus.hw.repositories;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.transaction.TestTransaction;
+import ru.otus.hw.collections.LongSet;
+import ru.otus.hw.config.RepositoryCacheConfig;
+import ru.otus.hw.config.RepositoryCacheProperties;
+import ru.otus.hw.models.Author;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Кеширующий репозиторий для работы с авторами ")
+@JdbcTest(properties = "app.cache.authors-max-size=2")
+@EnableConfigurationProperties(RepositoryCacheProperties.class)
+@Import({CachingAuthorRepository.class, JdbcAuthorRepository.class, RepositoryCacheConfig.class})
+class CachingAuthorRepositoryTest {
+
+    @Autowired
+    private CachingAuthorRepository cachingAuthorRepository;
+
+    @Autowired
+    private Cache<Long, Author> authorsCache;
+
+    @BeforeEach
+    void setUp() {
+        authorsCache.invalidateAll();
+    }
+
+    @DisplayName("должен отдавать повторно запрошенного автора из кеша")
+    @Test
+    void shouldReturnCachedAuthorOnSecondRequest() {
+        long hitsBefore = authorsCache.stats().hitCount();
+
+        var first = cachingAuthorRepository.findById(1L);
+        var second = cachingAuthorRepository.findById(1L);
+
+        assertThat(second).isPresent().get().isEqualTo(first.orElseThrow());
+        assertThat(authorsCache.stats().hitCount()).isEqualTo(hitsBefore + 1);
+    }
+
+    @DisplayName("должен догружать в кеш только отсутствующих авторов")
+    @Test
+    void shouldLoadOnlyMissingAuthorsByIds() {
+        cachingAuthorRepository.findById(1L);
+        long hitsBefore = authorsCache.stats().hitCount();
+        long missesBefore = authorsCache.stats().missCount();
+
+        var actual = cachingAuthorRepository.findAllByIds(LongSet.of(2L, 1L, 100L));
+
+        assertThat(actual).containsExactly(new Author(1L, "Author_1"), new Author(2L, "Author_2"));
+        assertThat(authorsCache.stats().hitCount()).isEqualTo(hitsBefore + 1);
+        assertThat(authorsCache.stats().missCount()).isEqualTo(missesBefore + 2);
+    }
+
+    @DisplayName("должен сбрасывать автора из кеша при сохранении и удалении")
+    @Test
+    void shouldInvalidateAuthorOnSaveAndDelete() {
+        cachingAuthorRepository.findById(1L);
+        var updated = cachingAuthorRepository.save(new Author(1L, "Author_100500"));
+        assertThat(cachingAuthorRepository.findById(1L)).isPresent().get().isEqualTo(updated);
+
+        cachingAuthorRepository.deleteById(1L);
+        assertThat(cachingAuthorRepository.findById(1L)).isEmpty();
+    }
+
+    @DisplayName("должен вытеснять авторов при превышении размера кеша")
+    @Test
+    void shouldEvictAuthorsWhenMaxSizeExceeded() {
+        cachingAuthorRepository.findById(1L);
+        cachingAuthorRepository.findById(2L);
+        cachingAuthorRepository.findById(3L);
+        authorsCache.cleanUp();
+
+        assertThat(authorsCache.estimatedSize()).isLessThanOrEqualTo(2);
+        assertThat(authorsCache.stats().evictionCount()).isPositive();
+    }
+
+    @DisplayName("должен отдавать копии, изменение которых не меняет закешированное значение")
+    @Test
+    void shouldReturnCopiesOfCachedAuthors() {
+        cachingAuthorRepository.findById(1L).orElseThrow().setFullName("Changed");
+        cachingAuthorRepository.findAllByIds(LongSet.of(1L)).get(0).setFullName("Changed");
+
+        assertThat(cachingAuthorRepository.findById(1L)).isPresent().get()
+                .extracting(Author::getFullName).isEqualTo("Author_1");
+    }
+
+    @DisplayName("должен сбрасывать из кеша автора, перечитанного в транзакции, после её отката")
+    @Test
+    void shouldInvalidateAuthorReloadedInTransactionAfterRollback() {
+        cachingAuthorRepository.save(new Author(1L, "Author_100500"));
+        cachingAuthorRepository.findById(1L);
+
+        TestTransaction.flagForRollback();
+        TestTransaction.end();
+
+        assertThat(authorsCache.getIfPresent(1L)).isNull();
+        assertThat(cachingAuthorRepository.findById(1L)).isPresent().get()
+                .extracting(Author::getFullName).isEqualTo("Author_1");
+    }
+}
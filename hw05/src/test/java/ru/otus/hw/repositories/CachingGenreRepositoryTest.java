@@ -0,0 +1,85 @@
+package ru.otus.hw.repositories;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.transaction.TestTransaction;
+import ru.otus.hw.collections.LongSet;
+import ru.otus.hw.config.RepositoryCacheConfig;
+import ru.otus.hw.config.RepositoryCacheProperties;
+import ru.otus.hw.models.Genre;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Кеширующий репозиторий для работы с жанрами ")
+@JdbcTest
+@EnableConfigurationProperties(RepositoryCacheProperties.class)
+@Import({CachingGenreRepository.class, JdbcGenreRepository.class, RepositoryCacheConfig.class})
+class CachingGenreRepositoryTest {
+
+    @Autowired
+    private CachingGenreRepository cachingGenreRepository;
+
+    @Autowired
+    private Cache<Long, Genre> genresCache;
+
+    @BeforeEach
+    void setUp() {
+        genresCache.invalidateAll();
+    }
+
+    @DisplayName("должен догружать в кеш только отсутствующие жанры")
+    @Test
+    void shouldLoadOnlyMissingGenresByIds() {
+        cachingGenreRepository.findById(1L);
+        long hitsBefore = genresCache.stats().hitCount();
+        long missesBefore = genresCache.stats().missCount();
+
+        var actual = cachingGenreRepository.findAllByIds(LongSet.of(3L, 1L, 2L));
+
+        assertThat(actual).containsExactly(new Genre(1L, "Genre_1"), new Genre(2L, "Genre_2"),
+                new Genre(3L, "Genre_3"));
+        assertThat(genresCache.stats().hitCount()).isEqualTo(hitsBefore + 1);
+        assertThat(genresCache.stats().missCount()).isEqualTo(missesBefore + 2);
+    }
+
+    @DisplayName("должен сбрасывать жанр из кеша при сохранении и удалении")
+    @Test
+    void shouldInvalidateGenreOnSaveAndDelete() {
+        cachingGenreRepository.findAllByIds(LongSet.of(1L, 2L));
+        var updated = cachingGenreRepository.save(new Genre(1L, "Genre_100500"));
+        assertThat(cachingGenreRepository.findById(1L)).isPresent().get().isEqualTo(updated);
+
+        cachingGenreRepository.deleteById(2L);
+        assertThat(cachingGenreRepository.findAllByIds(LongSet.of(1L, 2L))).containsExactly(updated);
+    }
+
+    @DisplayName("должен отдавать копии, изменение которых не меняет закешированное значение")
+    @Test
+    void shouldReturnCopiesOfCachedGenres() {
+        cachingGenreRepository.findById(1L).orElseThrow().setName("Changed");
+        cachingGenreRepository.findAllByIds(LongSet.of(1L)).get(0).setName("Changed");
+
+        assertThat(cachingGenreRepository.findById(1L)).isPresent().get()
+                .extracting(Genre::getName).isEqualTo("Genre_1");
+    }
+
+    @DisplayName("должен сбрасывать из кеша жанр, перечитанного в транзакции, после её отката")
+    @Test
+    void shouldInvalidateGenreReloadedInTransactionAfterRollback() {
+        cachingGenreRepository.save(new Genre(1L, "Genre_100500"));
+        cachingGenreRepository.findById(1L);
+
+        TestTransaction.flagForRollback();
+        TestTransaction.end();
+
+        assertThat(genresCache.getIfPresent(1L)).isNull();
+        assertThat(cachingGenreRepository.findById(1L)).isPresent().get()
+                .extracting(Genre::getName).isEqualTo("Genre_1");
+    }
+}
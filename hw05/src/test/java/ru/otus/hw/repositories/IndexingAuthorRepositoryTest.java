@@ -0,0 +1,62 @@
+package ru.otus.hw.repositories;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.transaction.TestTransaction;
+import ru.otus.hw.config.RepositoryCacheConfig;
+import ru.otus.hw.config.RepositoryCacheProperties;
+import ru.otus.hw.models.Author;
+import ru.otus.hw.search.BookSearchIndex;
+import ru.otus.hw.search.SearchHit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Репозиторий авторов, обновляющий поисковый индекс книг ")
+@JdbcTest
+@EnableConfigurationProperties(RepositoryCacheProperties.class)
+@Import({IndexingAuthorRepository.class, CachingAuthorRepository.class, JdbcAuthorRepository.class,
+        RepositoryCacheConfig.class, BookSearchIndex.class, JdbcBookRepository.class, JdbcGenreRepository.class})
+class IndexingAuthorRepositoryTest {
+
+    @Autowired
+    private IndexingAuthorRepository indexingAuthorRepository;
+
+    @Autowired
+    private BookSearchIndex bookSearchIndex;
+
+    @DisplayName("должен переименовывать автора в индексе только после коммита")
+    @Test
+    @DirtiesContext
+    void shouldRenameAuthorInIndexAfterCommit() {
+        assertThat(bookSearchIndex.search("Author_3", 0, 10).hits()).extracting(SearchHit::bookId).contains(3L);
+
+        indexingAuthorRepository.save(new Author(3, "Tolstoy"));
+        assertThat(bookSearchIndex.search("Tolstoy", 0, 10).totalHits()).isZero();
+
+        TestTransaction.flagForCommit();
+        TestTransaction.end();
+
+        assertThat(bookSearchIndex.search("Tolstoy", 0, 10).hits()).extracting(SearchHit::bookId)
+                .containsExactly(3L);
+    }
+
+    @DisplayName("не должен менять индекс при откате переименования и удаления автора")
+    @Test
+    void shouldKeepIndexUnchangedAfterRollback() {
+        assertThat(bookSearchIndex.search("Author_2", 0, 10).hits()).extracting(SearchHit::bookId).contains(2L);
+
+        indexingAuthorRepository.save(new Author(2, "Tolstoy"));
+        indexingAuthorRepository.deleteById(3);
+        TestTransaction.flagForRollback();
+        TestTransaction.end();
+
+        assertThat(bookSearchIndex.search("Tolstoy", 0, 10).totalHits()).isZero();
+        assertThat(bookSearchIndex.search("BookTitle_2", 0, 10).hits()).extracting(SearchHit::bookId).contains(2L);
+        assertThat(bookSearchIndex.search("BookTitle_3", 0, 10).hits()).extracting(SearchHit::bookId).contains(3L);
+    }
+}
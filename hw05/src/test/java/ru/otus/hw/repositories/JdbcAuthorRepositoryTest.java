@@ -9,13 +9,18 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
 import org.springframework.context.annotation.Import;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import ru.otus.hw.collections.LongSet;
+import ru.otus.hw.exceptions.EntityVersionConflictException;
 import ru.otus.hw.models.Author;
 import ru.otus.hw.models.Book;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.IntStream;
+import java.util.stream.LongStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @DisplayName("Репозиторий на основе Jdbc для работы с авторами ")
 @JdbcTest
@@ -56,6 +61,27 @@ public class JdbcAuthorRepositoryTest {
         assertThat(actual).containsExactlyInAnyOrderElementsOf(expected);
     }
 
+    @DisplayName("должен загружать авторов по списку id любого размера")
+    @Test
+    void shouldFindAuthorsByIds() {
+        assertThat(jdbcAuthorRepository.findAllByIds(LongSet.of(3L, 1L, 1L, 100L)))
+                .containsExactly(dbAuthors.get(0), dbAuthors.get(2));
+        assertThat(jdbcAuthorRepository.findAllByIds(LongSet.of())).isEmpty();
+
+        var manyIds = LongSet.of(LongStream.rangeClosed(1, JdbcBatchOperations.IDS_PER_QUERY * 2L + 1).toArray());
+        assertThat(jdbcAuthorRepository.findAllByIds(manyIds)).containsExactlyElementsOf(dbAuthors);
+    }
+
+    @DisplayName("должен загружать страницу авторов после заданного id и передавать всех в обработчик по порядку")
+    @Test
+    void shouldFindAuthorsPageAndPassAllAuthorsToAction() {
+        assertThat(jdbcAuthorRepository.findPage(1, 5)).containsExactlyElementsOf(dbAuthors.subList(1, 3));
+
+        List<Author> actual = new ArrayList<>();
+        jdbcAuthorRepository.forEach(actual::add);
+        assertThat(actual).containsExactlyElementsOf(dbAuthors);
+    }
+
     @DisplayName("должен сохранять нового автора")
     @Test
     void shouldSaveNewAuthor() {
@@ -96,6 +122,48 @@ public class JdbcAuthorRepositoryTest {
                 .isEqualTo(saved);
     }
 
+    @DisplayName("должен сохранять пакет новых и изменённых авторов")
+    @Test
+    void shouldSaveAllNewAndUpdatedAuthors() {
+        var authors = new ArrayList<Author>();
+        IntStream.range(0, 250).forEach(i -> authors.add(new Author(0, "Author_2000" + i)));
+        authors.add(new Author(1L, "Author_100500"));
+
+        var saved = jdbcAuthorRepository.saveAll(authors);
+
+        assertThat(saved).hasSize(authors.size())
+                .allMatch(author -> author.getId() > 0)
+                .doesNotHaveDuplicates();
+        assertThat(jdbcAuthorRepository.findAll()).containsAll(saved);
+    }
+
+    @DisplayName("должен отклонять пакетное изменение автора с устаревшей версией")
+    @Test
+    void shouldRejectBatchUpdateWithStaleVersion() {
+        var first = jdbcAuthorRepository.findById(1L).orElseThrow();
+        var second = jdbcAuthorRepository.findById(1L).orElseThrow();
+
+        first.setFullName("Author_100500");
+        jdbcAuthorRepository.saveAll(List.of(first));
+        assertThat(first.getVersion()).isEqualTo(1);
+
+        second.setFullName("Author_100501");
+        assertThatThrownBy(() -> jdbcAuthorRepository.saveAll(List.of(dbAuthors.get(1), second)))
+                .isInstanceOf(EntityVersionConflictException.class)
+                .hasMessageContaining("Author with id 1", "expected version 0, actual 1");
+        assertThat(jdbcAuthorRepository.findById(1L)).isPresent()
+                .get()
+                .isEqualTo(first);
+    }
+
+    @DisplayName("должен удалять авторов по списку id")
+    @Test
+    void shouldDeleteAllAuthorsByIds() {
+        jdbcAuthorRepository.deleteAllByIds(LongSet.of(1L, 3L));
+
+        assertThat(jdbcAuthorRepository.findAll()).containsExactly(dbAuthors.get(1));
+    }
+
     @DisplayName("должен удалять автора по id")
     @Test
     void shouldDeleteAuthorById() {
@@ -0,0 +1,107 @@
+package ru.otus.hw.repositories;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.otus.hw.exceptions.EntityVersionConflictException;
+import ru.otus.hw.models.Author;
+import ru.otus.hw.models.Book;
+import ru.otus.hw.models.Genre;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Репозиторий на основе Jdbc для работы с книгами при конкурентных изменениях ")
+@JdbcTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({JdbcBookRepository.class, JdbcGenreRepository.class})
+class JdbcBookRepositoryContentionTest {
+
+    private static final int THREADS_COUNT = 4;
+
+    private static final int ATTEMPTS_PER_THREAD = 100;
+
+    private static final String TITLE_PREFIX = "Contended_";
+
+    @Autowired
+    private JdbcBookRepository repositoryJdbc;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private long bookId;
+
+    @BeforeEach
+    void setUp() {
+        var book = new Book(0, TITLE_PREFIX + 0, new Author(1, null), new ArrayList<>(List.of(new Genre(1, null))));
+        bookId = repositoryJdbc.save(book).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        repositoryJdbc.deleteById(bookId);
+    }
+
+    // Каждая успешная запись увеличивает счётчик в названии, прочитанный в той же транзакции:
+    // при потерянном обновлении счётчик отстал бы от числа успешных записей и от версии
+    @DisplayName("не должен терять обновления одной книги из нескольких потоков")
+    @Test
+    @Timeout(value = 1, unit = TimeUnit.MINUTES)
+    void shouldNotLoseConcurrentUpdates() throws Exception {
+        var transactionTemplate = new TransactionTemplate(transactionManager);
+        var updatesCount = new AtomicInteger();
+        var conflictsCount = new AtomicInteger();
+        Callable<Void> editor = () -> {
+            for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> incrementTitleCounter());
+                    updatesCount.incrementAndGet();
+                } catch (EntityVersionConflictException e) {
+                    conflictsCount.incrementAndGet();
+                }
+            }
+            return null;
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS_COUNT);
+        try {
+            List<Future<Void>> futures = executor.invokeAll(Collections.nCopies(THREADS_COUNT, editor));
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        int attemptsCount = THREADS_COUNT * ATTEMPTS_PER_THREAD;
+        var book = repositoryJdbc.findById(bookId).orElseThrow();
+        assertThat(updatesCount.get() + conflictsCount.get()).isEqualTo(attemptsCount);
+        assertThat(book.getVersion()).isEqualTo(updatesCount.get());
+        assertThat(book.getTitle()).isEqualTo(TITLE_PREFIX + updatesCount.get());
+    }
+
+    private void incrementTitleCounter() {
+        var book = repositoryJdbc.findById(bookId).orElseThrow();
+        long counter = Long.parseLong(book.getTitle().substring(TITLE_PREFIX.length()));
+        book.setTitle(TITLE_PREFIX + (counter + 1));
+        repositoryJdbc.save(book);
+    }
+}
@@ -0,0 +1,79 @@
+package ru.otus.hw.repositories;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations;
+import ru.otus.hw.collections.LongSet;
+import ru.otus.hw.models.Author;
+import ru.otus.hw.models.Book;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Режимы чтения книг с жанрами в Jdbc-репозитории ")
+@JdbcTest
+@Import(JdbcGenreRepository.class)
+class JdbcBookRepositoryFetchModeTest {
+
+    @Autowired
+    private NamedParameterJdbcOperations namedJdbc;
+
+    @Autowired
+    private GenreRepository genreRepository;
+
+    private long bookWithoutGenresId;
+
+    @BeforeEach
+    void setUp() {
+        var book = new Book(0, "BookTitle_without_genres", new Author(1, null), new ArrayList<>());
+        bookWithoutGenresId = repository(BookFetchMode.JOINED).save(book).getId();
+    }
+
+    @DisplayName("должен загружать по id книгу без жанров")
+    @ParameterizedTest
+    @EnumSource(BookFetchMode.class)
+    void shouldFindBookWithoutGenresById(BookFetchMode fetchMode) {
+        assertThat(repository(fetchMode).findById(bookWithoutGenresId)).isPresent()
+                .get()
+                .matches(book -> book.getGenres().isEmpty())
+                .matches(book -> "Author_1".equals(book.getAuthor().getFullName()));
+    }
+
+    @DisplayName("должен возвращать одинаковые книги в обоих режимах")
+    @Test
+    void shouldReturnSameBooksInBothModes() {
+        List<Function<BookRepository, List<Book>>> queries = List.of(
+                repository -> repository.findById(1).stream().toList(),
+                repository -> repository.findPage(0, 3),
+                repository -> repository.findAllByIds(LongSet.of(1L, 3L, bookWithoutGenresId)),
+                repository -> repository.findAllByAuthorId(1),
+                repository -> repository.findAllByGenreIds(LongSet.of(1L, 3L), GenreMatch.ANY),
+                repository -> repository.findAllByGenreIds(LongSet.of(1L, 2L), GenreMatch.ALL),
+                repository -> {
+                    List<Book> books = new ArrayList<>();
+                    repository.forEach(books::add);
+                    return books;
+                });
+
+        var joined = repository(BookFetchMode.JOINED);
+        var aggregated = repository(BookFetchMode.AGGREGATED);
+        for (var query : queries) {
+            var expected = query.apply(joined);
+            assertThat(expected).isNotEmpty();
+            assertThat(query.apply(aggregated)).isEqualTo(expected);
+        }
+    }
+
+    private JdbcBookRepository repository(BookFetchMode fetchMode) {
+        return new JdbcBookRepository(genreRepository, namedJdbc, namedJdbc.getJdbcOperations(), fetchMode);
+    }
+}
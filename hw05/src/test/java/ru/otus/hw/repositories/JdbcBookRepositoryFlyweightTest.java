@@ -0,0 +1,152 @@
+package ru.otus.hw.repositories;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations;
+import ru.otus.hw.collections.LongSet;
+import ru.otus.hw.models.Author;
+import ru.otus.hw.models.Book;
+import ru.otus.hw.models.Genre;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Репозиторий на основе Jdbc для работы с книгами при загрузке списков ")
+@JdbcTest
+@Import(JdbcGenreRepository.class)
+class JdbcBookRepositoryFlyweightTest {
+
+    // Больше IDS_PER_QUERY, чтобы findAllByIds выполнялся несколькими запросами
+    private static final int BOOKS_COUNT = 3_000;
+
+    @Autowired
+    private NamedParameterJdbcOperations namedJdbc;
+
+    @Autowired
+    private GenreRepository genreRepository;
+
+    // К трём книгам data.sql добавляются книги трёх авторов с двумя из шести жанров
+    @BeforeEach
+    void setUp() {
+        var jdbc = namedJdbc.getJdbcOperations();
+        jdbc.update("""
+                INSERT INTO books (title, author_id)
+                SELECT 'BookTitle_flyweight_' || x, MOD(x, 3) + 1 FROM SYSTEM_RANGE(1, ?)
+                """, BOOKS_COUNT);
+        jdbc.update("""
+                INSERT INTO books_genres (book_id, genre_id)
+                SELECT id, MOD(id, 6) + 1 FROM books WHERE title LIKE 'BookTitle_flyweight_%'
+                UNION ALL
+                SELECT id, MOD(id + 1, 6) + 1 FROM books WHERE title LIKE 'BookTitle_flyweight_%'
+                """);
+    }
+
+    // Считаются экземпляры, достижимые из результата, как в гистограмме кучи после сборки мусора:
+    // на каждый id автора и жанра должен остаться один объект и одна строка с именем
+    @DisplayName("должен держать в списке книг один экземпляр каждого автора и жанра")
+    @ParameterizedTest
+    @EnumSource(BookFetchMode.class)
+    void shouldShareAuthorAndGenreInstancesWithinResult(BookFetchMode fetchMode) {
+        var repository = new JdbcBookRepository(genreRepository, namedJdbc, namedJdbc.getJdbcOperations(),
+                fetchMode);
+        var allIds = LongSet.of(repository.findAll().stream().mapToLong(Book::getId).toArray());
+        Map<String, Function<BookRepository, List<Book>>> queries = new LinkedHashMap<>();
+        queries.put("findAll", BookRepository::findAll);
+        queries.put("findPage", books -> books.findPage(0, BOOKS_COUNT));
+        queries.put("findAllByIds", books -> books.findAllByIds(allIds));
+        queries.put("findAllByAuthorId", books -> books.findAllByAuthorId(1));
+        queries.put("findAllByGenreIds", books -> books.findAllByGenreIds(LongSet.of(1, 2), GenreMatch.ANY));
+        queries.put("forEach", books -> {
+            List<Book> result = new ArrayList<>();
+            books.forEach(result::add);
+            return result;
+        });
+
+        queries.forEach((method, query) -> {
+            var books = query.apply(repository);
+            var histogram = retainedInstances(books);
+
+            assertThat(books).as(method).hasSizeGreaterThan(BOOKS_COUNT / 3);
+            assertThat(histogram).as(method).containsExactlyEntriesOf(expectedInstances(books));
+        });
+    }
+
+    @DisplayName("должен загружать компактные книги с теми же данными и одной строкой имени на автора")
+    @ParameterizedTest
+    @EnumSource(BookFetchMode.class)
+    void shouldReturnSummariesOfSameBooksWithSharedAuthorNames(BookFetchMode fetchMode) {
+        var repository = new JdbcBookRepository(genreRepository, namedJdbc, namedJdbc.getJdbcOperations(),
+                fetchMode);
+        var books = repository.findAll();
+        var allIds = LongSet.of(books.stream().mapToLong(Book::getId).toArray());
+
+        var summaries = repository.findSummariesByIds(allIds);
+        assertThat(summaries.books()).hasSameSizeAs(books);
+        for (int i = 0; i < books.size(); i++) {
+            var book = books.get(i);
+            var summary = summaries.books().get(i);
+            assertThat(summary.id()).isEqualTo(book.getId());
+            assertThat(summary.authorName()).isEqualTo(book.getAuthor().getFullName());
+            assertThat(summary.genreIds()).containsExactly(book.getGenres().stream()
+                    .mapToLong(Genre::getId).toArray());
+            for (Genre genre : book.getGenres()) {
+                assertThat(summaries.genres().name(genre.getId())).isEqualTo(genre.getName());
+            }
+        }
+        Set<String> authorNames = identitySet();
+        summaries.books().forEach(summary -> authorNames.add(summary.authorName()));
+        assertThat(authorNames).hasSize(expectedInstances(books).get(Author.class.getSimpleName()));
+    }
+
+    private static Map<String, Integer> retainedInstances(List<Book> books) {
+        Set<Author> authors = identitySet();
+        Set<Genre> genres = identitySet();
+        Set<String> names = identitySet();
+        for (Book book : books) {
+            authors.add(book.getAuthor());
+            names.add(book.getAuthor().getFullName());
+            for (Genre genre : book.getGenres()) {
+                genres.add(genre);
+                names.add(genre.getName());
+            }
+        }
+        return histogram(authors.size(), genres.size(), names.size());
+    }
+
+    private static Map<String, Integer> expectedInstances(List<Book> books) {
+        int authorsCount = books.stream()
+                .map(book -> book.getAuthor().getId())
+                .collect(Collectors.toSet()).size();
+        int genresCount = books.stream()
+                .flatMap(book -> book.getGenres().stream())
+                .map(Genre::getId)
+                .collect(Collectors.toSet()).size();
+        return histogram(authorsCount, genresCount, authorsCount + genresCount);
+    }
+
+    private static Map<String, Integer> histogram(int authorsCount, int genresCount, int namesCount) {
+        Map<String, Integer> histogram = new LinkedHashMap<>();
+        histogram.put(Author.class.getSimpleName(), authorsCount);
+        histogram.put(Genre.class.getSimpleName(), genresCount);
+        histogram.put(String.class.getSimpleName(), namesCount);
+        return histogram;
+    }
+
+    private static <T> Set<T> identitySet() {
+        return Collections.newSetFromMap(new IdentityHashMap<>());
+    }
+}
@@ -0,0 +1,92 @@
+package ru.otus.hw.repositories;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcOperations;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Сравнивает время по часам и идёт десятки секунд, поэтому запускается отдельно: mvn -Pscaling test
+@DisplayName("Репозиторий на основе Jdbc для работы с книгами на больших объёмах ")
+@Tag("scaling")
+@JdbcTest
+@Import({JdbcBookRepository.class, JdbcGenreRepository.class})
+class JdbcBookRepositoryScalingTest {
+
+    private static final int GENRES_PER_BOOK = 2;
+
+    private static final int MEASUREMENTS_COUNT = 3;
+
+    // Время на одну книгу на самом большом объёме не должно превышать время на малом более чем в столько раз
+    private static final double MAX_PER_BOOK_SLOWDOWN = 5.0;
+
+    // -Dbooks.scaling.max-size=1000000 для прогона на полном объёме
+    private static final long MAX_SIZE = Long.getLong("books.scaling.max-size", 100_000L);
+
+    @Autowired
+    private JdbcBookRepository repositoryJdbc;
+
+    @Autowired
+    private JdbcOperations jdbc;
+
+    @DisplayName("должен загружать все книги за линейное от их количества время")
+    @Test
+    @Timeout(value = 5, unit = TimeUnit.MINUTES)
+    void shouldFindAllBooksInLinearTime() {
+        var sizes = LongStream.iterate(1_000, size -> size <= MAX_SIZE, size -> size * 10).toArray();
+        List<Double> nanosPerBook = new ArrayList<>();
+
+        for (long size : sizes) {
+            seedBooksUpTo(size);
+            long bestNanos = Long.MAX_VALUE;
+            for (int i = 0; i < MEASUREMENTS_COUNT; i++) {
+                long start = System.nanoTime();
+                var books = repositoryJdbc.findAll();
+                bestNanos = Math.min(bestNanos, System.nanoTime() - start);
+
+                assertThat(books).hasSize((int) size)
+                        .allMatch(book -> book.getGenres().size() == GENRES_PER_BOOK);
+            }
+            nanosPerBook.add((double) bestNanos / size);
+        }
+
+        assertThat(nanosPerBook.get(nanosPerBook.size() - 1))
+                .as("findAll, ns per book by size: %s", zip(sizes, nanosPerBook))
+                .isLessThanOrEqualTo(nanosPerBook.get(0) * MAX_PER_BOOK_SLOWDOWN);
+    }
+
+    private void seedBooksUpTo(long size) {
+        long count = jdbc.queryForObject("SELECT COUNT(*) FROM books", Long.class);
+        long maxId = jdbc.queryForObject("SELECT MAX(id) FROM books", Long.class);
+        jdbc.update("""
+                INSERT INTO books (title, author_id)
+                SELECT 'BookTitle_' || x, MOD(x, 3) + 1 FROM SYSTEM_RANGE(?, ?)
+                """, count + 1, size);
+        jdbc.update("""
+                INSERT INTO books_genres (book_id, genre_id)
+                SELECT id, genre_id FROM books
+                CROSS JOIN (SELECT x AS genre_id FROM SYSTEM_RANGE(1, ?))
+                WHERE id > ?
+                """, GENRES_PER_BOOK, maxId);
+    }
+
+    private static Map<Long, String> zip(long[] sizes, List<Double> nanosPerBook) {
+        Map<Long, String> result = new LinkedHashMap<>();
+        for (int i = 0; i < sizes.length; i++) {
+            result.put(sizes[i], "%.1f".formatted(nanosPerBook.get(i)));
+        }
+        return result;
+    }
+}
@@ -5,19 +5,31 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import ru.otus.hw.collections.LongSet;
 import ru.otus.hw.exceptions.EntityNotFoundException;
+import ru.otus.hw.exceptions.EntityVersionConflictException;
 import ru.otus.hw.models.Author;
 import ru.otus.hw.models.Book;
 import ru.otus.hw.models.Genre;
+import ru.otus.hw.summaries.BookSummary;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 
 @DisplayName("Репозиторий на основе Jdbc для работы с книгами ")
 @JdbcTest
@@ -27,6 +39,9 @@ class JdbcBookRepositoryTest {
     @Autowired
     private JdbcBookRepository repositoryJdbc;
 
+    @MockitoSpyBean
+    private NamedParameterJdbcOperations namedJdbc;
+
     private List<Author> dbAuthors;
 
     private List<Genre> dbGenres;
@@ -60,6 +75,68 @@ class JdbcBookRepositoryTest {
         actualBooks.forEach(System.out::println);
     }
 
+    @DisplayName("должен загружать страницу книг после заданного id")
+    @Test
+    void shouldReturnCorrectBooksPage() {
+        assertThat(repositoryJdbc.findPage(0, 2)).containsExactlyElementsOf(dbBooks.subList(0, 2));
+        assertThat(repositoryJdbc.findPage(2, 2)).containsExactlyElementsOf(dbBooks.subList(2, 3));
+        assertThat(repositoryJdbc.findPage(3, 2)).isEmpty();
+    }
+
+    @DisplayName("должен загружать книги по списку id")
+    @Test
+    void shouldReturnBooksByIds() {
+        assertThat(repositoryJdbc.findAllByIds(LongSet.of(3L, 1L, 100L)))
+                .containsExactly(dbBooks.get(0), dbBooks.get(2));
+        assertThat(repositoryJdbc.findAllByIds(LongSet.of())).isEmpty();
+    }
+
+    @DisplayName("должен загружать книги автора")
+    @Test
+    void shouldReturnBooksByAuthorId() {
+        var newBook = repositoryJdbc.save(new Book(0, "BookTitle_4", dbAuthors.get(1),
+                new ArrayList<>(List.of(dbGenres.get(0)))));
+
+        assertThat(repositoryJdbc.findAllByAuthorId(2)).containsExactly(dbBooks.get(1), newBook);
+        assertThat(repositoryJdbc.findAllByAuthorId(100)).isEmpty();
+    }
+
+    @DisplayName("должен загружать книги с любым или со всеми из жанров вместе со всеми их жанрами")
+    @Test
+    void shouldReturnBooksByGenreIds() {
+        var newBook = repositoryJdbc.save(new Book(0, "BookTitle_4", dbAuthors.get(0),
+                new ArrayList<>(List.of(dbGenres.get(1), dbGenres.get(2)))));
+
+        assertThat(repositoryJdbc.findAllByGenreIds(LongSet.of(2L, 3L), GenreMatch.ANY))
+                .containsExactly(dbBooks.get(0), dbBooks.get(1), newBook);
+        assertThat(repositoryJdbc.findAllByGenreIds(LongSet.of(2L, 3L, 3L), GenreMatch.ALL))
+                .containsExactly(newBook);
+        assertThat(repositoryJdbc.findAllByGenreIds(LongSet.of(), GenreMatch.ANY)).isEmpty();
+    }
+
+    @DisplayName("должен передавать все книги в обработчик по порядку id")
+    @Test
+    void shouldPassAllBooksToActionInIdOrder() {
+        List<Book> actualBooks = new ArrayList<>();
+        repositoryJdbc.forEach(actualBooks::add);
+
+        assertThat(actualBooks).containsExactlyElementsOf(dbBooks);
+    }
+
+    @DisplayName("должен загружать книги по списку id в компактном виде только со словарём их жанров")
+    @Test
+    void shouldReturnBookSummariesByIds() {
+        var expectedBooks = List.of(dbBooks.get(0), dbBooks.get(2));
+        var summaries = repositoryJdbc.findSummariesByIds(LongSet.of(3L, 1L, 100L));
+
+        assertThat(summaries.books()).containsExactlyElementsOf(toSummaries(expectedBooks));
+        var expectedGenres = expectedBooks.stream().flatMap(book -> book.getGenres().stream()).distinct().toList();
+        assertThat(summaries.genres().size()).isEqualTo(expectedGenres.size());
+        expectedGenres.forEach(genre ->
+                assertThat(summaries.genres().name(genre.getId())).isEqualTo(genre.getName()));
+        assertThat(repositoryJdbc.findSummariesByIds(LongSet.of()).books()).isEmpty();
+    }
+
     @DisplayName("должен сохранять новую книгу")
     @Test
     void shouldSaveNewBook() {
@@ -76,6 +153,70 @@ class JdbcBookRepositoryTest {
                 .isEqualTo(returnedBook);
     }
 
+    @DisplayName("должен заполнять автора и жанры сохранённой книги по их id")
+    @Test
+    void shouldFillAuthorAndGenresOfSavedBookByIds() {
+        var book = new Book(0, "BookTitle_10500", new Author(1L, null),
+                new ArrayList<>(List.of(new Genre(3L, null), new Genre(1L, null))));
+
+        var returnedBook = repositoryJdbc.save(book);
+
+        assertThat(returnedBook.getAuthor()).isEqualTo(dbAuthors.get(0));
+        assertThat(returnedBook.getGenres()).containsExactly(dbGenres.get(0), dbGenres.get(2));
+        assertThat(repositoryJdbc.findById(returnedBook.getId())).isPresent().get().isEqualTo(returnedBook);
+    }
+
+    @DisplayName("должен бросать исключение при сохранении книги с несуществующим автором")
+    @Test
+    void shouldThrowExceptionWhenSavingBookWithAbsentAuthor() {
+        var newBook = new Book(0, "BookTitle_10500", new Author(100L, null), List.of(dbGenres.get(0)));
+        var updatedBook = new Book(1L, "BookTitle_10500", new Author(100L, null), List.of(dbGenres.get(0)));
+
+        assertThatThrownBy(() -> repositoryJdbc.save(newBook))
+                .isInstanceOf(EntityNotFoundException.class)
+                .hasMessageContaining("Author with id 100 not found");
+        assertThatThrownBy(() -> repositoryJdbc.save(updatedBook))
+                .isInstanceOf(EntityNotFoundException.class)
+                .hasMessageContaining("Author with id 100 not found");
+    }
+
+    @DisplayName("должен бросать исключение при сохранении книги с несуществующим жанром")
+    @Test
+    void shouldThrowExceptionWhenSavingBookWithAbsentGenre() {
+        var genres = List.of(dbGenres.get(0), new Genre(100L, null));
+        var newBook = new Book(0, "BookTitle_10500", dbAuthors.get(0), genres);
+        var updatedBook = new Book(1L, "BookTitle_10500", dbAuthors.get(0), genres);
+
+        assertThatThrownBy(() -> repositoryJdbc.save(newBook))
+                .isInstanceOf(EntityNotFoundException.class)
+                .hasMessageContaining("genres");
+        assertThatThrownBy(() -> repositoryJdbc.save(updatedBook))
+                .isInstanceOf(EntityNotFoundException.class)
+                .hasMessageContaining("genres");
+    }
+
+    @DisplayName("должен сохранять пакет новых и изменённых книг")
+    @Test
+    void shouldSaveAllNewAndUpdatedBooks() {
+        var newBooks = IntStream.range(0, 105).boxed()
+                .map(i -> new Book(0, "BookTitle_1050" + i, dbAuthors.get(i % dbAuthors.size()),
+                        List.of(dbGenres.get(i % 5), dbGenres.get(i % 5 + 1))))
+                .toList();
+        var updatedBook = new Book(1L, "BookTitle_10500", dbAuthors.get(2), List.of(dbGenres.get(5)));
+        var books = new ArrayList<>(newBooks);
+        books.add(updatedBook);
+
+        var returnedBooks = repositoryJdbc.saveAll(books);
+
+        assertThat(returnedBooks).hasSize(books.size())
+                .allMatch(book -> book.getId() > 0)
+                .doesNotHaveDuplicates();
+        returnedBooks.forEach(book -> assertThat(repositoryJdbc.findById(book.getId()))
+                .isPresent()
+                .get()
+                .isEqualTo(book));
+    }
+
     @DisplayName("должен бросать исключение при сохранении новой книги без автора")
     @Test
     void shouldThrowExceptionWhenSavingNewBookWithoutAuthor() {
@@ -108,6 +249,57 @@ class JdbcBookRepositoryTest {
                 .isEqualTo(returnedBook);
     }
 
+    @DisplayName("должен отклонять изменение книги с устаревшей версией и не трогать её жанры")
+    @Test
+    void shouldRejectUpdateWithStaleVersion() {
+        var first = repositoryJdbc.findById(1L).orElseThrow();
+        var second = repositoryJdbc.findById(1L).orElseThrow();
+
+        first.setTitle("BookTitle_10500");
+        assertThat(repositoryJdbc.save(first).getVersion()).isEqualTo(1);
+
+        second.setTitle("BookTitle_10501");
+        second.setGenres(new ArrayList<>(List.of(dbGenres.get(5))));
+        assertThatThrownBy(() -> repositoryJdbc.save(second))
+                .isInstanceOf(EntityVersionConflictException.class)
+                .hasMessageContaining("expected version 0, actual 1");
+        assertThat(repositoryJdbc.findById(1L)).isPresent()
+                .get()
+                .isEqualTo(first);
+    }
+
+    @DisplayName("не должен перезаписывать связи с жанрами при неизменном наборе жанров")
+    @Test
+    void shouldNotWriteGenresRelationsWhenGenresAreUnchanged() {
+        var expectedBook = new Book(1L, "BookTitle_10500", dbAuthors.get(2),
+                List.of(dbGenres.get(0), dbGenres.get(1)));
+
+        repositoryJdbc.save(expectedBook);
+
+        verify(namedJdbc, never()).batchUpdate(startsWith("INSERT INTO books_genres"),
+                any(SqlParameterSource[].class));
+        verify(namedJdbc, never()).batchUpdate(startsWith("DELETE FROM books_genres"),
+                any(SqlParameterSource[].class));
+        assertThat(repositoryJdbc.findById(1L)).isPresent().get().isEqualTo(expectedBook);
+    }
+
+    @DisplayName("должен записывать только изменившиеся связи с жанрами")
+    @Test
+    void shouldWriteOnlyChangedGenresRelations() {
+        var expectedBook = new Book(1L, "BookTitle_1", dbAuthors.get(0),
+                List.of(dbGenres.get(1), dbGenres.get(2), dbGenres.get(3)));
+        var insertedRelations = ArgumentCaptor.forClass(SqlParameterSource[].class);
+        var deletedRelations = ArgumentCaptor.forClass(SqlParameterSource[].class);
+
+        repositoryJdbc.save(expectedBook);
+
+        verify(namedJdbc).batchUpdate(startsWith("INSERT INTO books_genres"), insertedRelations.capture());
+        verify(namedJdbc).batchUpdate(startsWith("DELETE FROM books_genres"), deletedRelations.capture());
+        assertThat(insertedRelations.getValue()).hasSize(2);
+        assertThat(deletedRelations.getValue()).hasSize(1);
+        assertThat(repositoryJdbc.findById(1L)).isPresent().get().isEqualTo(expectedBook);
+    }
+
     @DisplayName("должен бросать исключение при сохранении обновлённой книги без автора")
     @Test
     void shouldThrowExceptionWhenSavingUpdatedBookWithoutAuthor() {
@@ -124,6 +316,14 @@ class JdbcBookRepositoryTest {
                 .hasMessageContaining("not specified");
     }
 
+    @DisplayName("должен удалять книги по списку id")
+    @Test
+    void shouldDeleteAllBooksByIds() {
+        repositoryJdbc.deleteAllByIds(LongSet.of(1L, 2L));
+
+        assertThat(repositoryJdbc.findAll()).containsExactly(dbBooks.get(2));
+    }
+
     @DisplayName("должен удалять книгу по id ")
     @Test
     void shouldDeleteBook() {
@@ -132,6 +332,14 @@ class JdbcBookRepositoryTest {
         assertThat(repositoryJdbc.findById(1L)).isEmpty();
     }
 
+    private static List<BookSummary> toSummaries(List<Book> books) {
+        return books.stream()
+                .map(book -> new BookSummary(book.getId(), book.getTitle(), book.getAuthor().getId(),
+                        book.getAuthor().getFullName(),
+                        book.getGenres().stream().mapToLong(Genre::getId).toArray(), book.getVersion()))
+                .toList();
+    }
+
     private static List<Author> getDbAuthors() {
         return IntStream.range(1, 4).boxed()
                 .map(id -> new Author(id, "Author_" + id))
@@ -8,9 +8,12 @@ import org.junit.jupiter.params.provider.MethodSource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
 import org.springframework.context.annotation.Import;
+import ru.otus.hw.collections.LongSet;
 import ru.otus.hw.exceptions.EntityNotFoundException;
+import ru.otus.hw.exceptions.EntityVersionConflictException;
 import ru.otus.hw.models.Genre;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 import java.util.stream.Collectors;
@@ -55,14 +58,24 @@ public class JdbcGenreRepositoryTest {
         assertThat(actual).containsExactlyInAnyOrderElementsOf(expected);
     }
 
+    @DisplayName("должен загружать страницу жанров после заданного id и передавать все в обработчик по порядку")
+    @Test
+    public void shouldFindGenresPageAndPassAllGenresToAction() {
+        assertThat(jdbcGenreRepository.findPage(2, 2)).containsExactlyElementsOf(dbGenres.subList(2, 4));
+
+        List<Genre> actual = new ArrayList<>();
+        jdbcGenreRepository.forEach(actual::add);
+        assertThat(actual).containsExactlyElementsOf(dbGenres);
+    }
+
     @DisplayName("должен загружать соответствующие жанры по их id")
     @Test
     public void shouldFindCorrespondingGenresByIds() {
         int lastExpectedIndex = new Random().nextInt(2, dbGenres.size() + 1);
         var expected = dbGenres.subList(0, lastExpectedIndex);
-        var expectedIds = expected.stream()
-                .map(Genre::getId)
-                .collect(Collectors.toSet());
+        var expectedIds = LongSet.of(expected.stream()
+                .mapToLong(Genre::getId)
+                .toArray());
         var actual = jdbcGenreRepository.findAllByIds(expectedIds);
         assertThat(actual).containsExactlyElementsOf(expected);
     }
@@ -117,6 +130,57 @@ public class JdbcGenreRepositoryTest {
                 .hasMessageContaining("not found");
     }
 
+    @DisplayName("должен отклонять изменение жанра с устаревшей версией")
+    @Test
+    public void shouldRejectUpdateWithStaleVersion() {
+        var first = jdbcGenreRepository.findById(1L).orElseThrow();
+        var second = jdbcGenreRepository.findById(1L).orElseThrow();
+
+        first.setName("GenreName_100500");
+        assertThat(jdbcGenreRepository.save(first).getVersion()).isEqualTo(1);
+
+        second.setName("GenreName_100501");
+        assertThatThrownBy(() -> jdbcGenreRepository.save(second))
+                .isInstanceOf(EntityVersionConflictException.class)
+                .hasMessageContaining("expected version 0, actual 1");
+        assertThat(jdbcGenreRepository.findById(1L)).isPresent()
+                .get()
+                .isEqualTo(first);
+    }
+
+    @DisplayName("должен сохранять пакет новых и изменённых жанров")
+    @Test
+    public void shouldSaveAllNewAndUpdatedGenres() {
+        var genres = new ArrayList<Genre>();
+        IntStream.range(0, 250).forEach(i -> genres.add(new Genre(0, "Genre_2000" + i)));
+        genres.add(new Genre(1L, "GenreName_100500"));
+
+        var saved = jdbcGenreRepository.saveAll(genres);
+
+        assertThat(saved).hasSize(genres.size())
+                .allMatch(genre -> genre.getId() > 0)
+                .doesNotHaveDuplicates();
+        assertThat(jdbcGenreRepository.findAll()).containsAll(saved);
+    }
+
+    @DisplayName("должен бросать исключение при пакетном обновлении отсутствующего жанра")
+    @Test
+    public void shouldThrowExceptionWhenSavingAllWithAbsentGenre() {
+        var genres = List.of(new Genre(1L, "GenreName_100500"), new Genre(1000L, "GenreName_100501"));
+
+        assertThatThrownBy(() -> jdbcGenreRepository.saveAll(genres))
+                .isInstanceOf(EntityNotFoundException.class)
+                .hasMessageContaining("not found");
+    }
+
+    @DisplayName("должен удалять жанры по списку id")
+    @Test
+    public void shouldDeleteAllGenresByIds() {
+        jdbcGenreRepository.deleteAllByIds(LongSet.of(1L, 2L, 3L));
+
+        assertThat(jdbcGenreRepository.findAll()).containsExactlyElementsOf(dbGenres.subList(3, 6));
+    }
+
     @DisplayName("должен удалить существующий жанр по id")
     @Test
     public void shouldDeleteGenreById() {
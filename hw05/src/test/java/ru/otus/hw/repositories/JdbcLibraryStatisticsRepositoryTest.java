@@ -0,0 +1,98 @@
+package ru.otus.hw.repositories;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcOperations;
+import ru.otus.hw.statistics.BooksCount;
+import ru.otus.hw.statistics.LibraryTotals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DisplayName("Репозиторий на основе Jdbc для статистики библиотеки ")
+@JdbcTest
+@Import(JdbcLibraryStatisticsRepository.class)
+class JdbcLibraryStatisticsRepositoryTest {
+
+    @Autowired
+    private JdbcLibraryStatisticsRepository statisticsRepository;
+
+    @Autowired
+    private JdbcOperations jdbc;
+
+    // К данным data.sql добавляются две книги автора 2 с жанром 3 и автор без книг.
+    // id новых записей не фиксированы: откат транзакции теста не возвращает последовательности назад
+    @BeforeEach
+    void setUp() {
+        jdbc.update("INSERT INTO authors (full_name) VALUES ('Author_4')");
+        jdbc.update("INSERT INTO books (title, author_id) VALUES ('BookTitle_4', 2), ('BookTitle_5', 2)");
+        jdbc.update("""
+                INSERT INTO books_genres (book_id, genre_id)
+                SELECT id, 3 FROM books WHERE title IN ('BookTitle_4', 'BookTitle_5')
+                UNION ALL
+                SELECT id, 1 FROM books WHERE title = 'BookTitle_5'
+                """);
+    }
+
+    @DisplayName("должен считать общее число книг, авторов и жанров")
+    @Test
+    void shouldCountTotals() {
+        assertThat(statisticsRepository.getTotals()).isEqualTo(new LibraryTotals(5, 4, 6));
+    }
+
+    @DisplayName("должен возвращать авторов с наибольшим числом книг")
+    @Test
+    void shouldFindTopAuthors() {
+        assertThat(statisticsRepository.findTopAuthors(2)).containsExactly(
+                new BooksCount(2, "Author_2", 3),
+                new BooksCount(1, "Author_1", 1));
+    }
+
+    @DisplayName("не должен занимать место в топе авторов книгами без автора")
+    @Test
+    void shouldNotCountBooksWithoutAuthorInTopAuthors() {
+        jdbc.update("INSERT INTO books (title) VALUES ('BookTitle_6'), ('BookTitle_7'), ('BookTitle_8')");
+
+        assertThat(statisticsRepository.findTopAuthors(2)).containsExactly(
+                new BooksCount(2, "Author_2", 3),
+                new BooksCount(1, "Author_1", 1));
+    }
+
+    @DisplayName("должен возвращать жанры с наибольшим числом книг")
+    @Test
+    void shouldFindTopGenres() {
+        assertThat(statisticsRepository.findTopGenres(3)).containsExactly(
+                new BooksCount(3, "Genre_3", 3),
+                new BooksCount(1, "Genre_1", 2),
+                new BooksCount(2, "Genre_2", 1));
+    }
+
+    @DisplayName("должен перебирать число книг каждого автора, включая авторов без книг")
+    @Test
+    void shouldIterateBooksCountOfEveryAuthor() {
+        List<BooksCount> counts = new ArrayList<>();
+        statisticsRepository.forEachAuthorBooksCount(counts::add);
+
+        assertThat(counts).extracting(BooksCount::name, BooksCount::booksCount).containsExactly(
+                tuple("Author_1", 1L),
+                tuple("Author_2", 3L),
+                tuple("Author_3", 1L),
+                tuple("Author_4", 0L));
+    }
+
+    @DisplayName("должен перебирать число книг каждого жанра")
+    @Test
+    void shouldIterateBooksCountOfEveryGenre() {
+        List<BooksCount> counts = new ArrayList<>();
+        statisticsRepository.forEachGenreBooksCount(counts::add);
+
+        assertThat(counts).extracting(BooksCount::booksCount).containsExactly(2L, 1L, 3L, 1L, 1L, 1L);
+    }
+}
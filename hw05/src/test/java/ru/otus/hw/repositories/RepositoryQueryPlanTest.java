@@ -0,0 +1,303 @@
+package ru.otus.hw.repositories;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import ru.otus.hw.collections.LongSet;
+import ru.otus.hw.models.Author;
+import ru.otus.hw.models.Book;
+import ru.otus.hw.models.Genre;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Планы запросов Jdbc-репозиториев ")
+@JdbcTest
+@Import({JdbcAuthorRepository.class, JdbcGenreRepository.class, JdbcBookRepository.class,
+        JdbcLibraryStatisticsRepository.class, RepositoryQueryPlanTest.StatementRecorderConfig.class})
+class RepositoryQueryPlanTest {
+
+    private static final String TABLE_SCAN_MARKER = ".tableScan";
+
+    // COUNT(*) по всей таблице H2 берёт из счётчика строк, не читая её, хотя в плане и указан tableScan
+    private static final Pattern DIRECT_LOOKUP_SCAN = Pattern.compile("\\.tableScan \\*/\\s+/\\* direct lookup \\*/");
+
+    // Эти методы по контракту читают всю таблицу, полный проход для них ожидаем
+    private static final Set<String> WHOLE_TABLE_METHODS = Set.of("findAll", "forEach");
+
+    // Запросы, которые H2 выполняет сама при каскадном удалении по внешним ключам
+    private static final List<String> CASCADE_STATEMENTS = List.of(
+            "DELETE FROM books WHERE author_id = ?",
+            "DELETE FROM books_genres WHERE book_id = ?",
+            "DELETE FROM books_genres WHERE genre_id = ?");
+
+    @Autowired
+    private JdbcAuthorRepository authorRepository;
+
+    @Autowired
+    private JdbcGenreRepository genreRepository;
+
+    @Autowired
+    private JdbcBookRepository bookRepository;
+
+    @Autowired
+    private JdbcLibraryStatisticsRepository statisticsRepository;
+
+    @Autowired
+    private StatementRecorder statementRecorder;
+
+    @Autowired
+    private JdbcOperations jdbc;
+
+    @DisplayName("не должен читать таблицы целиком в запросах, кроме чтения всех записей")
+    @Test
+    void shouldNotUseTableScans() {
+        var calls = repositoryCalls();
+        calls.forEach(statementRecorder::record);
+
+        List<String> violations = new ArrayList<>();
+        statementRecorder.getMethodsBySql().forEach((sql, methods) -> {
+            String plan = DIRECT_LOOKUP_SCAN.matcher(explain(sql)).replaceAll("");
+            boolean wholeTableRead = methods.stream()
+                    .allMatch(method -> WHOLE_TABLE_METHODS.contains(method.substring(method.indexOf('.') + 1)));
+            if (plan.contains(TABLE_SCAN_MARKER) && !wholeTableRead) {
+                violations.add(methods + System.lineSeparator() + plan);
+            }
+        });
+        CASCADE_STATEMENTS.stream()
+                .map(sql -> "on delete cascade" + System.lineSeparator() + explain(sql))
+                .filter(plan -> plan.contains(TABLE_SCAN_MARKER))
+                .forEach(violations::add);
+
+        assertThat(statementRecorder.getMethodsBySql()).isNotEmpty();
+        assertThat(violations).as("statements with table scans").isEmpty();
+    }
+
+    @DisplayName("должен проверять каждый метод интерфейсов репозиториев")
+    @Test
+    void shouldCoverAllRepositoryMethods() {
+        var coveredMethods = repositoryCalls().keySet();
+
+        for (Class<?> repositoryInterface : List.of(AuthorRepository.class, GenreRepository.class,
+                BookRepository.class, LibraryStatisticsRepository.class)) {
+            var interfaceMethods = Arrays.stream(repositoryInterface.getMethods())
+                    .map(method -> repositoryInterface.getSimpleName() + "." + method.getName())
+                    .collect(Collectors.toSet());
+            assertThat(coveredMethods).containsAll(interfaceMethods);
+        }
+    }
+
+    @DisplayName("должен выполнять поиск по наборам id разного размера одним текстом запроса на степень двойки")
+    @Test
+    void shouldReuseStatementsForIdSetsOfDifferentSizes() {
+        statementRecorder.clear();
+        for (int size = 5; size <= 8; size++) {
+            var ids = LongSet.of(LongStream.rangeClosed(1, size).toArray());
+            statementRecorder.record("AuthorRepository.findAllByIds", () -> authorRepository.findAllByIds(ids));
+            statementRecorder.record("GenreRepository.findAllByIds", () -> genreRepository.findAllByIds(ids));
+            statementRecorder.record("BookRepository.findAllByIds", () -> bookRepository.findAllByIds(ids));
+        }
+
+        assertThat(statementRecorder.getMethodsBySql().values()).flatExtracting(methods -> methods)
+                .containsExactlyInAnyOrder("AuthorRepository.findAllByIds", "GenreRepository.findAllByIds",
+                        "BookRepository.findAllByIds");
+    }
+
+    // Вызовы всех методов репозиториев на данных из data.sql; удаляются только созданные здесь записи
+    private Map<String, Runnable> repositoryCalls() {
+        Map<String, Runnable> calls = new LinkedHashMap<>();
+        calls.put("AuthorRepository.findAll", authorRepository::findAll);
+        calls.put("AuthorRepository.findById", () -> authorRepository.findById(1));
+        calls.put("AuthorRepository.findAllByIds", () -> authorRepository.findAllByIds(LongSet.of(1L, 2L, 3L)));
+        calls.put("AuthorRepository.findPage", () -> authorRepository.findPage(1, 2));
+        calls.put("AuthorRepository.forEach", () -> authorRepository.forEach(author -> { }));
+        calls.put("AuthorRepository.save", () -> {
+            authorRepository.save(new Author(0, "Author_new"));
+            authorRepository.save(new Author(1, "Author_1"));
+        });
+        calls.put("AuthorRepository.saveAll", () -> authorRepository.saveAll(
+                List.of(new Author(0, "Author_new"), new Author(2, "Author_2"))));
+        calls.put("AuthorRepository.deleteById", () ->
+                authorRepository.deleteById(authorRepository.save(new Author(0, "Author_new")).getId()));
+        calls.put("AuthorRepository.deleteAllByIds", () -> authorRepository.deleteAllByIds(
+                LongSet.of(authorRepository.save(new Author(0, "Author_new")).getId())));
+
+        calls.put("GenreRepository.findAll", genreRepository::findAll);
+        calls.put("GenreRepository.findById", () -> genreRepository.findById(1));
+        calls.put("GenreRepository.findAllByIds", () -> genreRepository.findAllByIds(LongSet.of(1L, 2L)));
+        calls.put("GenreRepository.findPage", () -> genreRepository.findPage(1, 2));
+        calls.put("GenreRepository.forEach", () -> genreRepository.forEach(genre -> { }));
+        calls.put("GenreRepository.save", () -> {
+            genreRepository.save(new Genre(0, "Genre_new"));
+            genreRepository.save(new Genre(1, "Genre_1"));
+        });
+        calls.put("GenreRepository.saveAll", () -> genreRepository.saveAll(
+                List.of(new Genre(0, "Genre_new"), new Genre(2, "Genre_2"))));
+        calls.put("GenreRepository.deleteById", () ->
+                genreRepository.deleteById(genreRepository.save(new Genre(0, "Genre_new")).getId()));
+        calls.put("GenreRepository.deleteAllByIds", () -> genreRepository.deleteAllByIds(
+                LongSet.of(genreRepository.save(new Genre(0, "Genre_new")).getId())));
+
+        calls.put("BookRepository.findById", () -> bookRepository.findById(1));
+        calls.put("BookRepository.findAll", bookRepository::findAll);
+        calls.put("BookRepository.findPage", () -> bookRepository.findPage(1, 2));
+        calls.put("BookRepository.findAllByIds", () -> bookRepository.findAllByIds(LongSet.of(1L, 2L)));
+        calls.put("BookRepository.findAllByAuthorId", () -> bookRepository.findAllByAuthorId(1));
+        calls.put("BookRepository.findAllByGenreIds", () -> {
+            bookRepository.findAllByGenreIds(LongSet.of(1L, 2L), GenreMatch.ANY);
+            bookRepository.findAllByGenreIds(LongSet.of(1L, 2L), GenreMatch.ALL);
+        });
+        calls.put("BookRepository.findSummariesByIds", () -> bookRepository.findSummariesByIds(LongSet.of(1L, 2L)));
+        calls.put("BookRepository.forEach", () -> bookRepository.forEach(book -> { }));
+        calls.put("BookRepository.forEachByAuthorId", () -> bookRepository.forEachByAuthorId(1, book -> { }));
+        calls.put("BookRepository.forEachByGenreIds", () -> {
+            bookRepository.forEachByGenreIds(LongSet.of(1L, 2L), GenreMatch.ANY, book -> { });
+            bookRepository.forEachByGenreIds(LongSet.of(1L, 2L), GenreMatch.ALL, book -> { });
+        });
+        calls.put("BookRepository.save", () -> {
+            bookRepository.save(newBook(0, 1, 2));
+            bookRepository.save(newBook(1, 2, 3));
+            bookRepository.save(newBook(2));
+        });
+        calls.put("BookRepository.saveAll", () -> {
+            var books = IntStream.rangeClosed(0, JdbcBatchOperations.ROWS_PER_INSERT)
+                    .mapToObj(i -> newBook(0, 1, 2))
+                    .collect(Collectors.toCollection(ArrayList::new));
+            books.add(newBook(3, 4, 5));
+            bookRepository.saveAll(books);
+        });
+        calls.put("BookRepository.deleteById", () ->
+                bookRepository.deleteById(bookRepository.save(newBook(0, 1)).getId()));
+        calls.put("BookRepository.deleteAllByIds", () ->
+                bookRepository.deleteAllByIds(LongSet.of(bookRepository.save(newBook(0, 1)).getId())));
+
+        calls.put("LibraryStatisticsRepository.getTotals", statisticsRepository::getTotals);
+        calls.put("LibraryStatisticsRepository.findTopAuthors", () -> statisticsRepository.findTopAuthors(2));
+        calls.put("LibraryStatisticsRepository.findTopGenres", () -> statisticsRepository.findTopGenres(2));
+        calls.put("LibraryStatisticsRepository.forEachAuthorBooksCount",
+                () -> statisticsRepository.forEachAuthorBooksCount(count -> { }));
+        calls.put("LibraryStatisticsRepository.forEachGenreBooksCount",
+                () -> statisticsRepository.forEachGenreBooksCount(count -> { }));
+        return calls;
+    }
+
+    private static Book newBook(long id, long... genreIds) {
+        var genres = Arrays.stream(genreIds)
+                .mapToObj(genreId -> new Genre(genreId, null))
+                .collect(Collectors.toCollection(ArrayList::new));
+        return new Book(id, "BookTitle_" + id, new Author(1, null), genres);
+    }
+
+    // Параметры подставляются единицами: план H2 от их значений не зависит
+    private String explain(String sql) {
+        return jdbc.execute((ConnectionCallback<String>) connection -> {
+            try (PreparedStatement ps = connection.prepareStatement("EXPLAIN " + sql)) {
+                int parametersCount = ps.getParameterMetaData().getParameterCount();
+                for (int i = 1; i <= parametersCount; i++) {
+                    ps.setLong(i, 1);
+                }
+                try (ResultSet rs = ps.executeQuery()) {
+                    rs.next();
+                    return rs.getString(1);
+                }
+            }
+        });
+    }
+
+    @TestConfiguration
+    static class StatementRecorderConfig {
+
+        @Bean
+        static StatementRecorder statementRecorder() {
+            return new StatementRecorder();
+        }
+    }
+
+    /**
+     * Оборачивает DataSource и запоминает текст каждого запроса вместе с методом репозитория, который его выполнил.
+     */
+    static class StatementRecorder implements BeanPostProcessor {
+
+        private final Map<String, Set<String>> methodsBySql = new LinkedHashMap<>();
+
+        private String currentMethod;
+
+        void record(String method, Runnable call) {
+            currentMethod = method;
+            try {
+                call.run();
+            } finally {
+                currentMethod = null;
+            }
+        }
+
+        void clear() {
+            methodsBySql.clear();
+        }
+
+        Map<String, Set<String>> getMethodsBySql() {
+            return methodsBySql;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof DataSource dataSource)) {
+                return bean;
+            }
+            return new DelegatingDataSource(dataSource) {
+                @Override
+                public Connection getConnection() throws SQLException {
+                    return recording(Connection.class, super.getConnection());
+                }
+            };
+        }
+
+        @SuppressWarnings("unchecked")
+        private <T> T recording(Class<T> type, T target) {
+            InvocationHandler handler = (proxy, method, args) -> {
+                if (currentMethod != null && args != null && args.length > 0 && args[0] instanceof String sql
+                        && !method.getName().startsWith("set")) {
+                    methodsBySql.computeIfAbsent(sql.strip(), key -> new LinkedHashSet<>()).add(currentMethod);
+                }
+                try {
+                    Object result = method.invoke(target, args);
+                    return result instanceof Statement statement && !(result instanceof PreparedStatement)
+                            ? recording(Statement.class, statement)
+                            : result;
+                } catch (InvocationTargetException e) {
+                    throw e.getTargetException();
+                }
+            };
+            return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+        }
+    }
+}
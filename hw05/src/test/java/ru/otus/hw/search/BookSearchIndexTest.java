@@ -0,0 +1,148 @@
+package ru.otus.hw.search;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.otus.hw.collections.LongSet;
+import ru.otus.hw.models.Author;
+import ru.otus.hw.models.Book;
+import ru.otus.hw.models.Genre;
+import ru.otus.hw.repositories.GenreRepository;
+import ru.otus.hw.repositories.JdbcBookRepository;
+import ru.otus.hw.repositories.JdbcGenreRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Полнотекстовый индекс книг ")
+@JdbcTest
+@Import({BookSearchIndex.class, JdbcBookRepository.class, JdbcGenreRepository.class})
+class BookSearchIndexTest {
+
+    @Autowired
+    private BookSearchIndex bookSearchIndex;
+
+    @Autowired
+    private JdbcBookRepository bookRepository;
+
+    @Autowired
+    private GenreRepository genreRepository;
+
+    @Autowired
+    private NamedParameterJdbcOperations namedJdbc;
+
+    @DisplayName("должен ставить выше книги, совпавшие по большему числу редких слов")
+    @Test
+    void shouldRankBooksByMatchedTerms() {
+        var searchHits = bookSearchIndex.search("booktitle 2", 0, 10);
+
+        assertThat(searchHits.totalHits()).isEqualTo(3);
+        assertThat(searchHits.exact()).isTrue();
+        assertThat(bookIds(searchHits)).containsExactly(2L, 1L, 3L);
+    }
+
+    @DisplayName("должен находить книги по имени автора и ставить совпадение в названии выше")
+    @Test
+    void shouldFindBooksByAuthorName() {
+        assertThat(bookIds(bookSearchIndex.search("Author_3", 0, 10))).containsExactly(3L, 1L, 2L);
+        assertThat(bookIds(bookSearchIndex.search("BookTitle_3", 0, 10)).get(0)).isEqualTo(3L);
+    }
+
+    @DisplayName("должен отдавать страницу результатов с оценкой числа найденных и пустой ответ на пустой запрос")
+    @Test
+    void shouldReturnRequestedPage() {
+        var searchHits = bookSearchIndex.search("booktitle", 1, 1);
+
+        assertThat(searchHits.totalHits()).isEqualTo(3);
+        assertThat(searchHits.exact()).isFalse();
+        assertThat(bookIds(searchHits)).containsExactly(2L);
+        assertThat(bookSearchIndex.search(" _ ", 0, 10).totalHits()).isZero();
+    }
+
+    @DisplayName("должен отдавать пустую страницу за последней, не переполняя смещение и размер кучи")
+    @Test
+    void shouldReturnEmptyPageForHugeOffsetAndLimit() {
+        long offset = Math.multiplyExact(Integer.MAX_VALUE - 1L, Integer.MAX_VALUE);
+
+        var searchHits = bookSearchIndex.search("booktitle", offset, Integer.MAX_VALUE);
+
+        assertThat(searchHits.totalHits()).isEqualTo(3);
+        assertThat(searchHits.hits()).isEmpty();
+        assertThat(bookIds(bookSearchIndex.search("booktitle", 0, Integer.MAX_VALUE))).hasSize(3);
+    }
+
+    @DisplayName("должен учитывать сохранённые и удалённые книги и переименованных авторов")
+    @Test
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.AFTER_METHOD)
+    void shouldKeepIndexInSyncWithChanges() {
+        bookSearchIndex.search("warmup", 0, 1);
+        var saved = bookRepository.save(new Book(0, "Unique novel", new Author(1, null),
+                new ArrayList<>(List.of(new Genre(1, null)))));
+        bookSearchIndex.index(List.of(saved));
+        assertThat(bookIds(bookSearchIndex.search("novel", 0, 10))).containsExactly(saved.getId());
+
+        saved.setTitle("Renamed story");
+        bookSearchIndex.index(List.of(bookRepository.save(saved)));
+        assertThat(bookSearchIndex.search("novel", 0, 10).totalHits()).isZero();
+        assertThat(bookIds(bookSearchIndex.search("story", 0, 10))).containsExactly(saved.getId());
+
+        bookSearchIndex.renameAuthor(1, "Leo Tolstoy");
+        assertThat(bookIds(bookSearchIndex.search("tolstoy", 0, 10))).containsExactly(1L, saved.getId());
+
+        bookSearchIndex.remove(LongSet.of(saved.getId()));
+        assertThat(bookIds(bookSearchIndex.search("tolstoy", 0, 10))).containsExactly(1L);
+    }
+
+    @DisplayName("должен возвращать прежние оценки после добавления и удаления книги без автора")
+    @Test
+    void shouldRestoreScoresAfterRemovingBookWithoutAuthor() {
+        var searchIndex = new BookSearchIndex(bookRepository);
+        var hitsBefore = searchIndex.search("booktitle", 0, 10).hits();
+
+        searchIndex.index(List.of(new Book(100_000, "Orphan booktitle", null, new ArrayList<>())));
+        assertThat(bookIds(searchIndex.search("orphan", 0, 10))).containsExactly(100_000L);
+        searchIndex.remove(LongSet.of(100_000L));
+
+        assertThat(searchIndex.search("orphan", 0, 10).totalHits()).isZero();
+        assertThat(searchIndex.search("booktitle", 0, 10).hits()).isEqualTo(hitsBefore);
+    }
+
+    // Запись приходит, когда построение уже прочитало книги из базы: она должна дождаться построения,
+    // а не пропускаться как сделанная до него
+    @DisplayName("не должен терять изменение, пришедшее во время построения индекса")
+    @Test
+    void shouldApplyChangeArrivedWhileIndexIsBuilding() throws InterruptedException {
+        var book = new Book(100_001, "Concurrent novel", new Author(1, "Author_1"), new ArrayList<>());
+        var searchIndex = new BookSearchIndex[1];
+        var writer = new Thread(() -> searchIndex[0].index(List.of(book)));
+        var buildingRepository = new JdbcBookRepository(genreRepository, namedJdbc, namedJdbc.getJdbcOperations()) {
+            @Override
+            public void forEach(Consumer<Book> action) {
+                super.forEach(action);
+                writer.start();
+                while (writer.getState() != Thread.State.WAITING && writer.getState() != Thread.State.TERMINATED) {
+                    Thread.onSpinWait();
+                }
+            }
+        };
+        searchIndex[0] = new BookSearchIndex(buildingRepository);
+
+        searchIndex[0].search("warmup", 0, 1);
+        writer.join();
+
+        assertThat(bookIds(searchIndex[0].search("concurrent", 0, 10))).containsExactly(100_001L);
+    }
+
+    private static List<Long> bookIds(SearchHits searchHits) {
+        return searchHits.hits().stream()
+                .map(SearchHit::bookId)
+                .toList();
+    }
+}
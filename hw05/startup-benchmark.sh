@@ -0,0 +1,76 @@
+#!/usr/bin/env bash
+# Замер времени до приглашения shell и RSS процесса для обычной сборки и сборки fast-start (AOT + CDS + lazy init).
+# Запуск из каталога hw05: ./startup-benchmark.sh [число запусков, по умолчанию 5]
+# Приложение запускается с командой help из файла; время считается до её вывода, то есть до готовности shell.
+set -euo pipefail
+
+RUNS=${1:-5}
+JAR_NAME=hw05-jdbc-0.0.1-SNAPSHOT.jar
+# Вне target: сборки ниже делают mvn clean
+WORK_DIR=${TMPDIR:-/tmp}/hw05-startup-benchmark
+PROMPT_MARKER="AVAILABLE COMMANDS"
+FAST_START_OPTIONS=(-XX:SharedArchiveFile=application.jsa -Dspring.aot.enabled=true -Dspring.profiles.active=fast-start)
+
+build() {
+    rm -rf "$WORK_DIR"
+    echo "Building default jar..."
+    mvn -B -q clean package -DskipTests > /dev/null
+    mkdir -p "$WORK_DIR/default"
+    cp "target/$JAR_NAME" "$WORK_DIR/default/"
+
+    echo "Building fast-start jar..."
+    mvn -B -q clean package -DskipTests -Pfast-start > /dev/null
+    java -Djarmode=tools -jar "target/$JAR_NAME" extract --destination "$WORK_DIR/fast-start" > /dev/null
+
+    # Тренировочный запуск: классы, загруженные до выхода, попадают в CDS-архив
+    echo "Training run for the CDS archive..."
+    printf 'help\nab --limit 1\nstats\n' > "$WORK_DIR/training-commands.txt"
+    (cd "$WORK_DIR/fast-start" && java -XX:ArchiveClassesAtExit=application.jsa -Dspring.aot.enabled=true \
+        -Dspring.profiles.active=fast-start -jar "$JAR_NAME" @../training-commands.txt > ../training.log 2>&1)
+}
+
+# Печатает "миллисекунды_до_приглашения rss_в_кб" для одного запуска
+measure() {
+    local dir=$1
+    shift
+    local output_pipe="$WORK_DIR/output.pipe"
+    rm -f "$output_pipe"
+    mkfifo "$output_pipe"
+    local start elapsed="" rss=""
+    start=$(date +%s%N)
+    (cd "$dir" && exec java "$@" -jar "$JAR_NAME" @../commands.txt) > "$output_pipe" 2>&1 &
+    local pid=$!
+    while IFS= read -r line; do
+        if [[ -z $elapsed && $line == *"$PROMPT_MARKER"* ]]; then
+            elapsed=$(( ($(date +%s%N) - start) / 1000000 ))
+            rss=$(awk '/^VmRSS/ {print $2}' "/proc/$pid/status")
+        fi
+    done < "$output_pipe"
+    wait "$pid"
+    rm -f "$output_pipe"
+    echo "$elapsed $rss"
+}
+
+median() {
+    sort -n | awk '{ values[NR] = $1 } END { print values[int((NR + 1) / 2)] }'
+}
+
+report() {
+    local name=$1
+    shift
+    local times=() rss_values=()
+    for ((run = 1; run <= RUNS; run++)); do
+        read -r elapsed rss < <(measure "$@")
+        times+=("$elapsed")
+        rss_values+=("$rss")
+    done
+    printf '%-12s %18s %14s   runs: %s ms\n' "$name" "$(printf '%s\n' "${times[@]}" | median)" \
+        "$(( $(printf '%s\n' "${rss_values[@]}" | median) / 1024 ))" "${times[*]}"
+}
+
+build
+echo help > "$WORK_DIR/commands.txt"
+echo
+printf '%-12s %18s %14s\n' "build" "time to prompt, ms" "RSS, MB"
+report default "$WORK_DIR/default"
+report fast-start "$WORK_DIR/fast-start" "${FAST_START_OPTIONS[@]}"